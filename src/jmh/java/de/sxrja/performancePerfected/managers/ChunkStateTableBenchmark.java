@@ -0,0 +1,139 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChunkStateTable gegen die frühere chunkTickMap (HashMap<ChunkPosition, ChunkTickData>).
+ * Gemessen werden die beiden heißen Pfade: Refresh (Multiplier pro geladenem Chunk setzen)
+ * und der Tick-Durchlauf über alle Chunks. Ausführen mit: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkStateTableBenchmark {
+
+    // Geladene Chunks einer Welt: kleiner Server, großer Server, Extremfall (Chunk-Loader, Pregen)
+    @Param({"10000", "50000", "200000"})
+    public int chunks;
+
+    private int[] xs;
+    private int[] zs;
+    private int[] multipliers;
+    private final Object world = new Object();
+
+    private Map<ChunkPosition, ChunkTickData> chunkTickMap;
+    private ChunkStateTable table;
+    private int tick = 0;
+
+    @Setup
+    public void setup() {
+        int side = (int) Math.ceil(Math.sqrt(chunks));
+        xs = new int[chunks];
+        zs = new int[chunks];
+        multipliers = new int[chunks];
+        Random random = new Random(42);
+        for (int i = 0; i < chunks; i++) {
+            xs[i] = i % side - side / 2;
+            zs[i] = i / side - side / 2;
+            multipliers[i] = 1 << random.nextInt(7);
+        }
+
+        chunkTickMap = new HashMap<>();
+        table = new ChunkStateTable();
+        for (int i = 0; i < chunks; i++) {
+            chunkTickMap.put(new ChunkPosition(world, xs[i], zs[i]), new ChunkTickData(multipliers[i]));
+            table.put(ChunkKey.pack(xs[i], zs[i]), multipliers[i]);
+        }
+    }
+
+    @Benchmark
+    public void refreshHashMap() {
+        for (int i = 0; i < chunks; i++) {
+            ChunkPosition pos = new ChunkPosition(world, xs[i], zs[i]);
+            ChunkTickData data = chunkTickMap.get(pos);
+            if (data == null) {
+                chunkTickMap.put(pos, new ChunkTickData(multipliers[i]));
+            } else {
+                data.tickMultiplier = multipliers[i];
+            }
+        }
+    }
+
+    @Benchmark
+    public void refreshTable() {
+        for (int i = 0; i < chunks; i++) {
+            table.put(ChunkKey.pack(xs[i], zs[i]), multipliers[i]);
+        }
+    }
+
+    @Benchmark
+    public void tickPassHashMap(Blackhole blackhole) {
+        int skipped = 0;
+        for (ChunkTickData data : chunkTickMap.values()) {
+            if (data.tickMultiplier > 1 && data.shouldSkipTick()) {
+                skipped++;
+            }
+        }
+        blackhole.consume(skipped);
+    }
+
+    @Benchmark
+    public void tickPassTable(Blackhole blackhole) {
+        int currentTick = ++tick;
+        int skipped = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (!table.isOccupied(slot)) continue;
+            if (table.multiplierAt(slot) > 1 && table.shouldSkipTick(slot, currentTick)) {
+                skipped++;
+            }
+        }
+        blackhole.consume(skipped);
+    }
+
+    // Nachbau der früheren Schlüssel-/Wertklassen aus LazyChunkManager (World durch Object ersetzt)
+    private static final class ChunkPosition {
+        private final Object world;
+        private final int x, z;
+
+        ChunkPosition(Object world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ChunkPosition that = (ChunkPosition) o;
+            return x == that.x && z == that.z && world.equals(that.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(world, x, z);
+        }
+    }
+
+    private static final class ChunkTickData {
+        private int tickMultiplier;
+        private int currentTick = 0;
+
+        ChunkTickData(int tickMultiplier) {
+            this.tickMultiplier = tickMultiplier;
+        }
+
+        boolean shouldSkipTick() {
+            currentTick++;
+            return currentTick % tickMultiplier != 0;
+        }
+    }
+}
@@ -2,12 +2,19 @@ package de.sxrja.performancePerfected;
 
 
 import de.sxrja.performancePerfected.managers.*;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
 public class CommandHandler implements CommandExecutor {
 
     private JavaPlugin plugin;
@@ -44,6 +51,19 @@ public class CommandHandler implements CommandExecutor {
                 return handleCleanup(sender);
             case "monitor":
                 return handleMonitor(sender, args);
+            case "fluids":
+                return handleFluids(sender, args);
+            case "hotspots":
+                return handleHotspots(sender, args);
+            case "ticks":
+            case "mspt":
+                return handleTicks(sender);
+            case "plugins":
+                return handlePlugins(sender, args);
+            case "analyze":
+                return handleAnalyze(sender);
+            case "backups":
+                return handleBackups(sender, args);
             case "lazydebug":
             case "lazystats":
                 if (performanceOptimizer.getLazyChunkManager() != null) {
@@ -52,7 +72,7 @@ public class CommandHandler implements CommandExecutor {
                     if (lazy.isActive()) {
                         sender.sendMessage("§6════════════════ LAZY CHUNKS DEBUG ════════════════");
                         sender.sendMessage("§7Status: §a§lACTIVE");
-                        sender.sendMessage("§7Active Radius: §e" + lazy.getCurrentDistance() + " §7Chunks");
+                        sender.sendMessage("§7Active Radius: §e" + lazy.getCurrentDistance() + " §7Chunks §8(configured: " + lazy.getConfiguredDistance() + ")");
                         sender.sendMessage("§7Min. Radius: §e" + lazy.getMinDistance() + " §7Chunks");
                         sender.sendMessage("§7Adaptive Mode: §e" + (lazy.isAdaptiveEnabled() ? "§aActivated" : "§cDeactivated"));
                         sender.sendMessage("");
@@ -64,9 +84,21 @@ public class CommandHandler implements CommandExecutor {
                                         (lazy.getLazyChunksCount() * 100.0 / lazy.getTotalChunks()) : 0));
                         sender.sendMessage("§7Avg. Multiplier: §e" +
                                 String.format("%.1fx", lazy.getAverageMultiplier()));
+                        sender.sendMessage("§7Suspended AI: §e" + lazy.getSuspendedEntities() + " §7Entities");
+                        sender.sendMessage("§7Throttled Redstone: §e" + lazy.getThrottledRedstoneUpdates() + " §7Updates");
+                        sender.sendMessage("§7Deferred Random Ticks: §e" + lazy.getDeferredGrowthEvents() +
+                                " §8(caught up: " + lazy.getCaughtUpGrowth() + ")");
+                        sender.sendMessage("§7Predictive Promotions: §e" + lazy.getPredictivePromotions() + " §7Chunks");
+                        sender.sendMessage("§7Throttled Fluids: §e" + lazy.getThrottledFluidFlows() + " §7Flows" +
+                                (lazy.isFluidOverloaded() ? " §c(MSPT throttling)" : ""));
                         sender.sendMessage("");
                         sender.sendMessage("§6📈 Performance:");
                         sender.sendMessage("§7Current TPS: §e" + String.format("%.1f", lazy.getCurrentTPS()));
+                        sender.sendMessage("§7Current MSPT: §e" + String.format("%.1f", lazy.getCurrentMspt()) +
+                                (lazy.isAdaptiveEnabled() ? " §8(target: " + String.format("%.1f", lazy.getTargetMspt()) + ")" : ""));
+                        sender.sendMessage("§7Tick Budget: §e" +
+                                String.format("%.0f/%.0fµs", lazy.getLastTickNanos() / 1000.0, lazy.getTickBudgetNanos() / 1000.0));
+                        sender.sendMessage("§7Backlog: §e" + lazy.getBacklog() + " §7Chunks §8(Sweep: " + lazy.getLastSweepTicks() + " Ticks)");
 
                         // Berechne theoretische Tick-Einsparung
                         if (lazy.getTotalChunks() > 0 && lazy.getAverageMultiplier() > 1) {
@@ -114,6 +146,13 @@ public class CommandHandler implements CommandExecutor {
         sender.sendMessage("§6⚡ §ePerformance Status:");
         sender.sendMessage("§7TPS (1m/5m/15m): §f" + String.format("%.2f", tps[0]) + "§7/§f" +
                 String.format("%.2f", tps[1]) + "§7/§f" + String.format("%.2f", tps[2]));
+        TickSampler.Stats ticks = performanceOptimizer.getTickSampler().getStats(TickSampler.Window.ONE_MINUTE);
+        sender.sendMessage("§7MSPT 1m (p50/p95/p99): §f" + String.format("%.1f", ticks.getP50()) + "§7/§f" +
+                String.format("%.1f", ticks.getP95()) + "§7/§f" + String.format("%.1f", ticks.getP99()));
+        StallWatchdog watchdog = performanceOptimizer.getStallWatchdog();
+        if (watchdog.isRunning()) {
+            sender.sendMessage("§7Lag Spikes: §e" + watchdog.getRecordedSpikes() + " §7recorded §8(plugins/PerformancePerfected/spikes)");
+        }
         sender.sendMessage("§7Config-Mode: §f" + (configManager.useAdvancedConfig() ? "Advanced" : "Simple"));
         if (configManager.useAdvancedConfig()) {
             if (performanceOptimizer.getLazyChunkManager() != null &&
@@ -122,6 +161,21 @@ public class CommandHandler implements CommandExecutor {
             } else {
                 sender.sendMessage("§7Lazy Chunks: §cDeactivated");
             }
+            ChunkEntityCaps caps = performanceOptimizer.getChunkEntityCaps();
+            if (caps.hasLimits()) {
+                sender.sendMessage("§7Chunk Limits: §e" + caps.getDeniedSpawns() + " §7denied, §e"
+                        + caps.getMergedSpawns() + " §7merged");
+            }
+            PlayerDistanceManager distances = performanceOptimizer.getPlayerDistanceManager();
+            if (distances.isActive()) {
+                sender.sendMessage("§7Player Distance: §e" + distances.getBudget() + " §7chunks budget, §e"
+                        + distances.getReducedPlayers() + " §7players reduced");
+            }
+            EmergencyLadder ladder = performanceOptimizer.getEmergencyLadder();
+            if (ladder.getLevel() > 0) {
+                sender.sendMessage("§7Emergency Stage: §c" + ladder.getLevel() + "/" + ladder.getStages().size()
+                        + " §7(" + ladder.getCurrentStage() + ")");
+            }
         }
         return true;
     }
@@ -132,17 +186,37 @@ public class CommandHandler implements CommandExecutor {
             return true;
         }
 
-        performanceOptimizer.killAllNonPlayerEntities();
+        performanceOptimizer.killAllNonPlayerEntities(sender);
         sender.sendMessage("§a✅ Notfallbereinigung manuell ausgelöst");
         return true;
     }
 
     private boolean handleCleanup(CommandSender sender) {
-        // Implementierung für manuelles Aufräumen
+        if (!requireAdmin(sender)) return true;
+
+        CleanupJob running = performanceOptimizer.getActiveCleanupJob();
+        if (running != null && !running.isFinished()) {
+            // Läuft bereits: Fortschritt anzeigen
+            sender.sendMessage(String.format("§7[Performance] §f%s: §e%.0f%% §7(%d/%d chunks, %d removed, %d ticks)",
+                    running.getName(), running.getProgress(), running.getProcessedChunks(),
+                    running.getTotalChunks(), running.getTotalRemoved(), running.getElapsedTicks()));
+            return true;
+        }
+
+        performanceOptimizer.forceCleanup(sender);
         sender.sendMessage("§7[Performance] §fManuelles Aufräumen gestartet");
         return true;
     }
 
+    // Berechtigung direkt am Sender prüfen - funktioniert auch für die Konsole
+    private boolean requireAdmin(CommandSender sender) {
+        if (sender.hasPermission(NotificationManager.PERM_ADMIN) || sender.isOp()) {
+            return true;
+        }
+        sender.sendMessage(configManager.getLangMessage("errors.no-permission", "&c❌ Keine Berechtigung"));
+        return false;
+    }
+
     private boolean handleMonitor(CommandSender sender, String[] args) {
         if (args.length > 1 && args[1].equalsIgnoreCase("reset") && fileMonitor != null) {
             fileMonitor.resetConfigChanged();
@@ -151,6 +225,232 @@ public class CommandHandler implements CommandExecutor {
         return true;
     }
 
+    private boolean handleFluids(CommandSender sender, String[] args) {
+        LazyChunkManager lazy = performanceOptimizer.getLazyChunkManager();
+        if (lazy == null || !lazy.isActive()) {
+            sender.sendMessage("§6Lazy Chunks: §cDeactivated");
+            return true;
+        }
+
+        int limit = 10;
+        if (args.length > 1) {
+            try {
+                limit = Math.max(1, Math.min(50, Integer.parseInt(args[1])));
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cUsage: /pp fluids [count]");
+                return true;
+            }
+        }
+
+        List<LazyChunkManager.FluidChunkStats> top = lazy.getTopFluidChunks(limit);
+        sender.sendMessage("§6═══════════════ FLUID HOTSPOTS ═══════════════");
+        if (top.isEmpty()) {
+            sender.sendMessage("§7No fluid activity recorded yet.");
+        }
+        for (LazyChunkManager.FluidChunkStats chunk : top) {
+            sender.sendMessage(String.format("§e%s §7[%d, %d] §7flows: §f%d §7throttled: §c%d §8(x%d)",
+                    chunk.getWorld(), chunk.getX(), chunk.getZ(),
+                    chunk.getAllowed(), chunk.getThrottled(), chunk.getMultiplier()));
+        }
+        return true;
+    }
+
+    private boolean handleHotspots(CommandSender sender, String[] args) {
+        LazyChunkManager lazy = performanceOptimizer.getLazyChunkManager();
+        if (lazy == null || !lazy.isHeatmapEnabled()) {
+            sender.sendMessage("§cHeatmap not active (requires lazy-chunks.enabled and lazy-chunks.heatmap)");
+            return true;
+        }
+
+        // Argumente: [welt] [anzahl] in beliebiger Reihenfolge
+        World world = null;
+        int limit = 10;
+        for (int i = 1; i < args.length; i++) {
+            try {
+                limit = Math.max(1, Math.min(50, Integer.parseInt(args[i])));
+            } catch (NumberFormatException e) {
+                world = Bukkit.getWorld(args[i]);
+                if (world == null) {
+                    sender.sendMessage("§cUnknown world: " + args[i]);
+                    return true;
+                }
+            }
+        }
+
+        String scope = world != null ? world.getName() : "all worlds";
+        sender.sendMessage("§7Ranking chunks in §e" + scope + "§7...");
+        lazy.getActivityTracker().rankAsync(world, limit, hotspots -> {
+            sender.sendMessage("§6═══════════════ CHUNK HOTSPOTS ═══════════════");
+            if (hotspots.isEmpty()) {
+                sender.sendMessage("§7No chunk activity recorded yet.");
+            }
+            int rank = 1;
+            for (ChunkActivityTracker.Hotspot spot : hotspots) {
+                sender.sendMessage(String.format("§e#%d §f%s §7[%d, %d] §7score §c%.1f",
+                        rank++, spot.getWorld(), spot.getX(), spot.getZ(), spot.getScore()));
+                sender.sendMessage(String.format("§8   mobs %d, animals %d, items %d, other %d, tiles %d, " +
+                                "redstone %.0f/min, fluid %.0f/min, active %ds",
+                        spot.getMonsters(), spot.getAnimals(), spot.getItems(), spot.getOther(), spot.getTiles(),
+                        spot.getRedstonePerMinute(), spot.getFluidPerMinute(), spot.getActiveSeconds()));
+            }
+        });
+        return true;
+    }
+
+    private boolean handleTicks(CommandSender sender) {
+        TickSampler sampler = performanceOptimizer.getTickSampler();
+        if (sampler.getSampleCount() == 0) {
+            sender.sendMessage("§cNo ticks recorded yet.");
+            return true;
+        }
+
+        sender.sendMessage("§6⏱ §eTick Times §7(ms, " + sampler.getSampleCount() + " ticks recorded):");
+        sender.sendMessage("§8Window   p50     p95     p99     max     avg");
+        for (TickSampler.Window window : TickSampler.Window.values()) {
+            TickSampler.Stats stats = sampler.getStats(window);
+            sender.sendMessage(String.format("§7%-6s §f%6.1f  %s%6.1f  %s%6.1f  %s%6.1f  §f%6.1f",
+                    window.getLabel(), stats.getP50(),
+                    msptColor(stats.getP95()), stats.getP95(),
+                    msptColor(stats.getP99()), stats.getP99(),
+                    msptColor(stats.getMax()), stats.getMax(),
+                    stats.getAvg()));
+        }
+        return true;
+    }
+
+    private boolean handleAnalyze(CommandSender sender) {
+        if (!requireAdmin(sender)) return true;
+
+        boolean started = performanceOptimizer.startEntityCensus(report -> {
+            sender.sendMessage("§6═══════════════ ENTITY CENSUS ═══════════════");
+            sender.sendMessage(String.format("§7%d entities in %d chunks §8(snapshot: %d ticks, max %.2fms/tick; analysis %.1fms async)",
+                    report.getEntities(), report.getChunks(), report.getSnapshotTicks(),
+                    report.getMaxTickNanos() / 1_000_000.0, report.getAnalysisNanos() / 1_000_000.0));
+
+            sender.sendMessage("§6By type:");
+            for (EntityCensus.Entry entry : report.getTypes()) {
+                sender.sendMessage("§7  " + entry.getLabel() + ": §e" + entry.getCount() + " §8(" + entry.getDetail() + ")");
+            }
+            sender.sendMessage("§6Fullest chunks:");
+            for (EntityCensus.Entry entry : report.getTopChunks()) {
+                sender.sendMessage("§7  " + entry.getLabel() + ": §e" + entry.getCount() + " §8(" + entry.getDetail() + ")");
+            }
+            if (!report.getPlayers().isEmpty()) {
+                sender.sendMessage("§6Around players:");
+                for (EntityCensus.Entry entry : report.getPlayers()) {
+                    sender.sendMessage("§7  " + entry.getLabel() + ": §e" + entry.getCount() + " §8(" + entry.getDetail() + ")");
+                }
+            }
+        });
+
+        if (started) {
+            sender.sendMessage("§7Counting entities chunk by chunk...");
+        } else {
+            EntityCensus running = performanceOptimizer.getActiveCensus();
+            sender.sendMessage(String.format("§eAnalysis already running: §f%.0f%% §7(%d entities so far)",
+                    running.getProgress(), running.getSnapshotSize()));
+        }
+        return true;
+    }
+
+    private boolean handlePlugins(CommandSender sender, String[] args) {
+        PluginCostTracker tracker = performanceOptimizer.getPluginCostTracker();
+        if (!tracker.isActive()) {
+            sender.sendMessage("§cPlugin timing is disabled §7(profiling.plugin-timing in advanced-config.yml)");
+            return true;
+        }
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            if (!requireAdmin(sender)) return true;
+            tracker.reset();
+            sender.sendMessage("§a✅ Plugin timings reset");
+            return true;
+        }
+
+        int ticks = tracker.getMeasuredTicks();
+        List<PluginCostTracker.Cost> totals = tracker.getPluginTotals();
+        List<PluginCostTracker.Cost> costs = tracker.getCosts();
+        sender.sendMessage("§6🔌 §ePlugin Tick Cost §7(" + ticks + " ticks, " + tracker.getWrappedListeners()
+                + " listeners, " + tracker.getWrappedTasks() + " tasks):");
+        if (totals.isEmpty()) {
+            sender.sendMessage("§7Nothing measured yet.");
+            return true;
+        }
+
+        int rank = 1;
+        for (PluginCostTracker.Cost total : totals.subList(0, Math.min(10, totals.size()))) {
+            sender.sendMessage(String.format("§e#%d §f%s §7- §c%.3fms/tick §8(%d calls)",
+                    rank++, total.getPlugin(), total.getNanos() / 1e6 / ticks, total.getCalls()));
+
+            // Die drei teuersten Events/Tasks dieses Plugins
+            int shown = 0;
+            for (PluginCostTracker.Cost cost : costs) {
+                if (!cost.getPlugin().equals(total.getPlugin())) continue;
+                sender.sendMessage(String.format("§8   %s: %.3fms/tick, %d calls, avg %.1fµs",
+                        cost.getLabel(), cost.getNanos() / 1e6 / ticks, cost.getCalls(),
+                        cost.getNanos() / 1000.0 / cost.getCalls()));
+                if (++shown >= 3) break;
+            }
+        }
+        return true;
+    }
+
+    private boolean handleBackups(CommandSender sender, String[] args) {
+        if (!requireAdmin(sender)) return true;
+        ServerConfigWriter writer = performanceOptimizer.getServerConfigWriter();
+
+        if (args.length >= 4 && args[1].equalsIgnoreCase("restore")) {
+            int version;
+            try {
+                version = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cUsage: /pp backups restore <file> <version>");
+                return true;
+            }
+            writer.restoreAsync(args[2], version, (entry, error) -> {
+                if (entry == null) {
+                    sender.sendMessage("§cRestore failed: §7" + error);
+                    return;
+                }
+                sender.sendMessage("§a✅ Restored §f" + entry.getFile() + " §afrom " +
+                        new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(entry.getTime())));
+                sender.sendMessage("§7Restart the server to apply it. §8(/pp reload would re-apply the optimizations)");
+            });
+            return true;
+        }
+        if (args.length >= 2 && !args[1].equalsIgnoreCase("list")) {
+            sender.sendMessage("§cUsage: /pp backups list | /pp backups restore <file> <version>");
+            return true;
+        }
+
+        writer.listBackupsAsync((history, error) -> {
+            if (history == null) {
+                sender.sendMessage("§cCould not read backups: §7" + error);
+                return;
+            }
+            sender.sendMessage("§6💾 §eConfig Backups §8(plugins/PerformancePerfected/backups):");
+            if (history.isEmpty()) {
+                sender.sendMessage("§7No backups yet.");
+                return;
+            }
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            for (Map.Entry<String, List<BackupStore.Entry>> file : history.entrySet()) {
+                sender.sendMessage("§f" + file.getKey() + "§7:");
+                int version = 1;
+                for (BackupStore.Entry entry : file.getValue()) {
+                    sender.sendMessage(String.format("§e  #%d §7%s §8(%.1f KB, %s)", version++,
+                            format.format(new Date(entry.getTime())), entry.getSize() / 1024.0,
+                            entry.getHash().substring(0, 8)));
+                }
+            }
+            sender.sendMessage("§7Restore with §e/pp backups restore <file> <#>");
+        });
+        return true;
+    }
+
+    private String msptColor(double mspt) {
+        return mspt > 50 ? "§c" : mspt > 40 ? "§e" : "§a";
+    }
+
     private void sendHelp(CommandSender sender) {
         String[] helpLines = {
                 configManager.getLangMessage("plugin.help.title", "&6⚡ PerformancePlugin Help"),
@@ -41,6 +41,10 @@ public final class PerformancePerfected extends JavaPlugin {
         if (fileMonitor != null) {
             fileMonitor.stopAllTasks();
         }
+        if (performanceOptimizer != null) {
+            // Pausierte Entities vor dem Entladen des Plugins wiederherstellen
+            performanceOptimizer.stopAllTimers();
+        }
         getLogger().info("PerformancePlugin stopped. (for Devs: this is the clean stop from the plugin itself)");
     }
 
@@ -0,0 +1,66 @@
+package de.sxrja.performancePerfected.managers;
+
+/**
+ * PI-Regler mit Totband für den effektiven Lazy-Chunk-Radius.
+ * Liegt die MSPT über dem Ziel, wird der aktive Radius schnell verkleinert;
+ * bei Luft wächst er langsam (mit Cooldown) wieder bis zum konfigurierten Wert.
+ */
+public class AdaptiveDistanceController {
+
+    private static final double KP = 0.05;          // Chunks pro ms Abweichung
+    private static final double KI = 0.01;          // Chunks pro ms*Sekunde
+    private static final double INTEGRAL_LIMIT = 200.0;
+    private static final int GROW_COOLDOWN = 5;     // Auswertungen zwischen zwei Vergrößerungen
+
+    private double integral = 0;
+    private int growCooldown = 0;
+    private int effectiveDistance;
+
+    public AdaptiveDistanceController(int initialDistance) {
+        this.effectiveDistance = initialDistance;
+    }
+
+    /**
+     * EINE REGELSCHLEIFE (ca. 1x pro Sekunde aufrufen)
+     * @return der neue effektive Radius
+     */
+    public int update(double mspt, double targetMspt, double hysteresis, int minDistance, int maxDistance) {
+        double error = mspt - targetMspt;
+
+        if (Math.abs(error) <= hysteresis) {
+            // Im Totband: Integral abbauen, Radius halten
+            integral *= 0.5;
+        } else {
+            integral = Math.max(-INTEGRAL_LIMIT, Math.min(INTEGRAL_LIMIT, integral + error));
+        }
+
+        if (growCooldown > 0) {
+            growCooldown--;
+        }
+
+        double output = KP * error + KI * integral;
+
+        if (output >= 1.0 && effectiveDistance > minDistance) {
+            effectiveDistance--;
+            integral = 0;
+            growCooldown = GROW_COOLDOWN;
+        } else if (output <= -1.0 && effectiveDistance < maxDistance && growCooldown == 0) {
+            effectiveDistance++;
+            integral = 0;
+            growCooldown = GROW_COOLDOWN;
+        }
+
+        effectiveDistance = Math.max(minDistance, Math.min(maxDistance, effectiveDistance));
+        return effectiveDistance;
+    }
+
+    public void reset(int distance) {
+        integral = 0;
+        growCooldown = 0;
+        effectiveDistance = distance;
+    }
+
+    public int getEffectiveDistance() {
+        return effectiveDistance;
+    }
+}
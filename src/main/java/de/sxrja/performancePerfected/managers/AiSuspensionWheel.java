@@ -0,0 +1,198 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.*;
+
+/**
+ * Hashed Timing Wheel für alle Entities, deren AI in Lazy Chunks pausiert ist.
+ * Ersetzt ein runTaskLater pro Entity: jede Entity wird genau einmal pausiert und genau einmal fortgesetzt.
+ * Die Pause wird im PersistentDataContainer markiert, damit nach Crash oder /reload keine Mobs ohne AI bleiben.
+ * Einträge halten nur die UUID (keine Entity-Referenz) und werden beim Entladen bzw. vorzeitigen
+ * Fortsetzen ausgetragen; die Pause ist auf ChunkStateTable.MAX_MULTIPLIER Ticks gedeckelt.
+ */
+public class AiSuspensionWheel implements Listener {
+
+    private static final int WHEEL_SIZE = 256; // Zweierpotenz
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final JavaPlugin plugin;
+    private final NamespacedKey suspendedKey;
+    private final List<List<Entry>> buckets = new ArrayList<>(WHEEL_SIZE);
+    // Aktive Einträge; ausgetragene bleiben als "cancelled" im Bucket liegen, bis ihr Slot dran ist
+    private final Map<UUID, Entry> pending = new HashMap<>();
+    private int cursor = 0;
+
+    public AiSuspensionWheel(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.suspendedKey = new NamespacedKey(plugin, "lazy-ai-suspended");
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * AI FÜR ticks TICKS PAUSIEREN (nur wenn die Entity gerade AI hat)
+     */
+    public void suspend(LivingEntity entity, int ticks) {
+        // Bereits pausiert (von uns oder einem anderen Plugin) -> nicht erneut anfassen
+        if (!entity.hasAI()) return;
+
+        entity.getPersistentDataContainer().set(suspendedKey, PersistentDataType.BYTE, (byte) 1);
+        entity.setAI(false);
+
+        int delay = Math.max(1, Math.min(ChunkStateTable.MAX_MULTIPLIER, ticks));
+        Entry entry = new Entry(entity.getUniqueId(), (delay - 1) / WHEEL_SIZE);
+        Entry previous = pending.put(entry.id, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        buckets.get((cursor + delay) & WHEEL_MASK).add(entry);
+    }
+
+    /**
+     * WHEEL UM EINEN TICK WEITERDREHEN - fällige Entities bekommen ihre AI zurück
+     */
+    public void tick() {
+        cursor = (cursor + 1) & WHEEL_MASK;
+        List<Entry> bucket = buckets.get(cursor);
+        if (bucket.isEmpty()) return;
+
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Entry entry = bucket.get(i);
+            if (entry.cancelled) continue;
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                bucket.set(kept++, entry);
+            } else {
+                pending.remove(entry.id);
+                Entity entity = Bukkit.getEntity(entry.id);
+                if (entity instanceof LivingEntity) {
+                    resume((LivingEntity) entity);
+                }
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    /**
+     * ALLE PAUSIERTEN ENTITIES SOFORT FORTSETZEN (Stop / Reload)
+     */
+    public void resumeAll() {
+        for (UUID id : pending.keySet()) {
+            Entity entity = Bukkit.getEntity(id);
+            if (entity instanceof LivingEntity) {
+                resume((LivingEntity) entity);
+            }
+        }
+        pending.clear();
+        for (List<Entry> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Entities eines vorab aktivierten Chunks sofort fortsetzen und aus dem Wheel austragen
+     */
+    public int resumeChunk(Chunk chunk) {
+        int resumed = 0;
+        for (Entity entity : chunk.getEntities()) {
+            if (entity instanceof LivingEntity) {
+                cancel(entity);
+                if (resume((LivingEntity) entity)) {
+                    resumed++;
+                }
+            }
+        }
+        return resumed;
+    }
+
+    // Wheel-Eintrag austragen (O(1), der Bucket überspringt ihn später)
+    private void cancel(Entity entity) {
+        Entry entry = pending.remove(entity.getUniqueId());
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * Markierte Entities aller geladenen Welten wiederherstellen (z.B. nach einem Crash)
+     */
+    public int recoverLoadedEntities() {
+        int recovered = 0;
+        for (World world : Bukkit.getWorlds()) {
+            for (LivingEntity entity : world.getLivingEntities()) {
+                if (resume(entity)) {
+                    recovered++;
+                }
+            }
+        }
+        if (recovered > 0) {
+            plugin.getLogger().info("Lazy Chunks: restored AI of " + recovered + " previously suspended entities");
+        }
+        return recovered;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        // Entities, die mit Markierung gespeichert wurden (Crash), sofort reparieren
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof LivingEntity) {
+                resume((LivingEntity) entity);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        // Entities nicht ohne AI auf die Platte schreiben lassen
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof LivingEntity) {
+                cancel(entity);
+                resume((LivingEntity) entity);
+            }
+        }
+    }
+
+    /**
+     * AI nur zurückgeben, wenn wir sie selbst pausiert haben (Markierung vorhanden)
+     */
+    private boolean resume(LivingEntity entity) {
+        PersistentDataContainer data = entity.getPersistentDataContainer();
+        if (!data.has(suspendedKey, PersistentDataType.BYTE)) {
+            return false;
+        }
+        data.remove(suspendedKey);
+        entity.setAI(true);
+        return true;
+    }
+
+    public int getSuspendedCount() {
+        return pending.size();
+    }
+
+    private static class Entry {
+        private final UUID id;
+        private int rounds;
+        private boolean cancelled = false;
+
+        public Entry(UUID id, int rounds) {
+            this.id = id;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package de.sxrja.performancePerfected.managers;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Backups der Server-Configs unter plugins/PerformancePerfected/backups.
+ * Inhalte liegen gzip-komprimiert unter ihrem SHA-256 (objects/<hash>.gz) - gleicher Inhalt wird
+ * also nur einmal gespeichert. index.tsv hält pro Datei die letzten maxPerFile Stände;
+ * Objekte, auf die kein Stand mehr zeigt, werden gelöscht.
+ * Nicht für den Main-Thread gedacht (Aufrufer: ServerConfigWriter im Async-Pool).
+ */
+public class BackupStore {
+
+    private static final String INDEX_FILE = "index.tsv";
+
+    private final File container;
+    private final Path root;
+    private final Path objects;
+
+    private volatile int maxPerFile = 10;
+
+    // Datei (relativ zum Server-Ordner) -> Stände, ältester zuerst; wird beim ersten Zugriff geladen
+    private Map<String, List<Entry>> history = null;
+
+    public BackupStore(File dataFolder, File container) {
+        this.container = container;
+        this.root = new File(dataFolder, "backups").toPath();
+        this.objects = root.resolve("objects");
+    }
+
+    public void setMaxPerFile(int maxPerFile) {
+        this.maxPerFile = Math.max(1, maxPerFile);
+    }
+
+    /**
+     * STAND SICHERN - liefert null, wenn der neueste Stand schon genau diesen Inhalt hat
+     */
+    public synchronized Entry backup(File original) throws IOException {
+        loadIndex();
+        Files.createDirectories(objects);
+
+        String key = keyOf(original);
+        Path incoming = objects.resolve("incoming.tmp");
+        String hash = compressInto(original.toPath(), incoming);
+
+        List<Entry> entries = history.computeIfAbsent(key, k -> new ArrayList<>());
+        if (!entries.isEmpty() && entries.get(entries.size() - 1).hash.equals(hash)) {
+            Files.deleteIfExists(incoming);
+            return null;
+        }
+
+        Path object = objects.resolve(hash + ".gz");
+        if (Files.exists(object)) {
+            Files.delete(incoming);
+        } else {
+            try {
+                Files.move(incoming, object, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(incoming, object);
+            }
+        }
+
+        Entry entry = new Entry(key, System.currentTimeMillis(), Files.size(original.toPath()), hash);
+        entries.add(entry);
+        while (entries.size() > maxPerFile) {
+            entries.remove(0);
+        }
+
+        saveIndex();
+        pruneObjects();
+        return entry;
+    }
+
+    /**
+     * KOMPRIMIEREN + HASHEN in einem Durchgang: transferTo -> SHA-256 -> gzip -> Temp-Datei (fsync)
+     */
+    private String compressInto(Path source, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(out), 8192);
+            WritableByteChannel sink = Channels.newChannel(new DigestOutputStream(gzip, digest));
+
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, sink);
+            }
+            gzip.finish();
+            gzip.flush();
+            out.force(true);
+            gzip.close();
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * STAND ZURÜCKSPIELEN (version 1 = neuester Stand)
+     * Der aktuelle Inhalt wird vorher selbst gesichert, ein Restore lässt sich also rückgängig machen.
+     */
+    public synchronized Entry restore(String key, int version) throws IOException {
+        loadIndex();
+        List<Entry> entries = history.get(key);
+        if (entries == null || entries.isEmpty()) {
+            throw new FileNotFoundException("No backups for " + key);
+        }
+        if (version < 1 || version > entries.size()) {
+            throw new IllegalArgumentException("Version must be between 1 and " + entries.size());
+        }
+
+        Entry entry = entries.get(entries.size() - version);
+        byte[] content = read(entry);
+
+        File target = new File(container, key);
+        if (target.exists()) {
+            backup(target);
+        }
+        ServerConfigWriter.writeAtomically(target.toPath(), content);
+        return entry;
+    }
+
+    private byte[] read(Entry entry) throws IOException {
+        Path object = objects.resolve(entry.hash + ".gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(object))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(entry.size, 1 << 20));
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * ALLE STÄNDE (Kopie, neuester zuerst)
+     */
+    public synchronized Map<String, List<Entry>> getHistory() throws IOException {
+        loadIndex();
+        Map<String, List<Entry>> copy = new TreeMap<>();
+        for (Map.Entry<String, List<Entry>> entry : history.entrySet()) {
+            List<Entry> entries = new ArrayList<>(entry.getValue());
+            Collections.reverse(entries);
+            copy.put(entry.getKey(), entries);
+        }
+        return copy;
+    }
+
+    private void pruneObjects() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        for (List<Entry> entries : history.values()) {
+            for (Entry entry : entries) {
+                referenced.add(entry.hash + ".gz");
+            }
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(objects, "*.gz")) {
+            for (Path object : stream) {
+                if (!referenced.contains(object.getFileName().toString())) {
+                    Files.delete(object);
+                }
+            }
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        if (history != null) return;
+        history = new LinkedHashMap<>();
+
+        Path index = root.resolve(INDEX_FILE);
+        if (!Files.exists(index)) return;
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t");
+            if (parts.length != 4) continue;
+            try {
+                Entry entry = new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]);
+                history.computeIfAbsent(entry.file, k -> new ArrayList<>()).add(entry);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (List<Entry> entries : history.values()) {
+            for (Entry entry : entries) {
+                content.append(entry.file).append('\t').append(entry.time).append('\t')
+                        .append(entry.size).append('\t').append(entry.hash).append('\n');
+            }
+        }
+        ServerConfigWriter.writeAtomically(root.resolve(INDEX_FILE), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Pfad relativ zum Server-Ordner, immer mit '/'
+    private String keyOf(File file) {
+        Path relative = container.toPath().toAbsolutePath().normalize()
+                .relativize(file.toPath().toAbsolutePath().normalize());
+        return relative.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Ein gesicherter Stand einer Datei
+     */
+    public static class Entry {
+        private final String file;
+        private final long time;
+        private final long size;
+        private final String hash;
+
+        Entry(String file, long time, long size, String hash) {
+            this.file = file;
+            this.time = time;
+            this.size = size;
+            this.hash = hash;
+        }
+
+        public String getFile() { return file; }
+        public long getTime() { return time; }
+        public long getSize() { return size; }
+        public String getHash() { return hash; }
+    }
+}
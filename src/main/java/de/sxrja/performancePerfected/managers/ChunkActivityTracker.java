@@ -0,0 +1,216 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockRedstoneEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Sammelt Kosten-Signale pro Chunk für die Hotspot-Anzeige.
+ * Bestände (Entities, Tile-Entities) werden beim Round-Robin-Besuch des LazyChunkManagers
+ * abgetastet, Redstone-Updates und Flüssigkeits-Flüsse zählen die Listener mit.
+ * Kein BlockPhysicsEvent: der feuert für jedes Nachbar-Update und wäre teurer als das, was er misst.
+ * Die Rangliste wird auf einer Kopie asynchron berechnet.
+ */
+public class ChunkActivityTracker implements Listener {
+
+    // Jeder Chunk wird höchstens alle 5 Sekunden neu gezählt
+    private static final int SAMPLE_INTERVAL = 100;
+
+    private final JavaPlugin plugin;
+    private final Map<UUID, ChunkHeatMap> heatMaps = new HashMap<>();
+
+    public ChunkActivityTracker(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onBlockRedstone(BlockRedstoneEvent event) {
+        Block block = event.getBlock();
+        ChunkHeatMap heatMap = heatMaps.get(block.getWorld().getUID());
+        if (heatMap == null) return;
+
+        int base = heatMap.find(ChunkKey.pack(block.getX() >> 4, block.getZ() >> 4));
+        if (base >= 0) {
+            heatMap.incrementRedstone(base);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        Block block = event.getBlock();
+        ChunkHeatMap heatMap = heatMaps.get(block.getWorld().getUID());
+        if (heatMap == null) return;
+
+        int base = heatMap.find(ChunkKey.pack(block.getX() >> 4, block.getZ() >> 4));
+        if (base >= 0) {
+            heatMap.incrementFluid(base);
+        }
+    }
+
+    /**
+     * CHUNK BEIM ROUND-ROBIN-BESUCH ABTASTEN (gedrosselt auf SAMPLE_INTERVAL)
+     */
+    public void sample(World world, long key, int multiplier, int currentTick) {
+        ChunkHeatMap heatMap = heatMaps.computeIfAbsent(world.getUID(), uid -> new ChunkHeatMap());
+        int base = heatMap.recordFor(key, currentTick);
+        int sinceLast = currentTick - heatMap.lastSampleTick(base);
+        // sinceLast == 0: gerade erst angelegt -> sofort zählen
+        if (sinceLast > 0 && sinceLast < SAMPLE_INTERVAL) {
+            return;
+        }
+
+        int x = ChunkKey.x(key);
+        int z = ChunkKey.z(key);
+        if (!world.isChunkLoaded(x, z)) return;
+
+        Chunk chunk = world.getChunkAt(x, z);
+        int monsters = 0, animals = 0, items = 0, other = 0;
+        for (Entity entity : chunk.getEntities()) {
+            if (entity instanceof Player) continue;
+
+            if (entity instanceof Monster) {
+                monsters++;
+            } else if (entity instanceof Animals) {
+                animals++;
+            } else if (entity instanceof Item || entity instanceof ExperienceOrb) {
+                items++;
+            } else {
+                other++;
+            }
+        }
+        int tiles = chunk.getTileEntities(false).length;
+
+        heatMap.sample(base, monsters, animals, items, other, tiles, multiplier <= 1, currentTick);
+    }
+
+    public void onChunkUnload(World world, long key) {
+        ChunkHeatMap heatMap = heatMaps.get(world.getUID());
+        if (heatMap != null) {
+            heatMap.remove(key);
+        }
+    }
+
+    public void onWorldUnload(World world) {
+        heatMaps.remove(world.getUID());
+    }
+
+    public void clear() {
+        heatMaps.clear();
+    }
+
+    public int getTrackedChunks() {
+        int tracked = 0;
+        for (ChunkHeatMap heatMap : heatMaps.values()) {
+            tracked += heatMap.size();
+        }
+        return tracked;
+    }
+
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (ChunkHeatMap heatMap : heatMaps.values()) {
+            bytes += heatMap.memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * RANGLISTE BERECHNEN OHNE DEN TICK ZU BLOCKIEREN
+     * Main-Thread: nur Kopie der Puffer. Async: Bewertung + Top-N. Ergebnis wieder auf dem Main-Thread.
+     * @param world null = alle Welten
+     */
+    public void rankAsync(World world, int limit, Consumer<List<Hotspot>> callback) {
+        int currentTick = Bukkit.getCurrentTick();
+        Map<String, byte[]> snapshots = new LinkedHashMap<>();
+        for (Map.Entry<UUID, ChunkHeatMap> entry : heatMaps.entrySet()) {
+            if (world != null && !world.getUID().equals(entry.getKey())) continue;
+
+            World snapshotWorld = Bukkit.getWorld(entry.getKey());
+            if (snapshotWorld != null) {
+                snapshots.put(snapshotWorld.getName(), entry.getValue().snapshot());
+            }
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Hotspot> ranked = rank(snapshots, limit, currentTick);
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(ranked));
+        });
+    }
+
+    private static List<Hotspot> rank(Map<String, byte[]> snapshots, int limit, int currentTick) {
+        PriorityQueue<Hotspot> heap = new PriorityQueue<>(Comparator.comparingDouble(Hotspot::getScore));
+
+        for (Map.Entry<String, byte[]> entry : snapshots.entrySet()) {
+            ByteBuffer data = ByteBuffer.wrap(entry.getValue());
+            for (int base = 0; base + ChunkHeatMap.RECORD <= data.capacity(); base += ChunkHeatMap.RECORD) {
+                long key = data.getLong(base + ChunkHeatMap.OFF_KEY);
+                if (ChunkHeatMap.isEmptyKey(key)) continue;
+
+                heap.add(new Hotspot(entry.getKey(), ChunkKey.x(key), ChunkKey.z(key), data, base, currentTick));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<Hotspot> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Hotspot::getScore).reversed());
+        return result;
+    }
+
+    // Hilfsklassen
+    public static class Hotspot {
+        private final String world;
+        private final int x, z;
+        private final int monsters, animals, items, other, tiles;
+        private final double redstonePerMinute, fluidPerMinute;
+        private final int activeSeconds;
+        private final double score;
+
+        private Hotspot(String world, int x, int z, ByteBuffer data, int base, int currentTick) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+            this.monsters = data.getShort(base + ChunkHeatMap.OFF_MONSTERS);
+            this.animals = data.getShort(base + ChunkHeatMap.OFF_ANIMALS);
+            this.items = data.getShort(base + ChunkHeatMap.OFF_ITEMS);
+            this.other = data.getShort(base + ChunkHeatMap.OFF_OTHER);
+            this.tiles = data.getInt(base + ChunkHeatMap.OFF_TILES);
+
+            double minutes = Math.max(1, currentTick - data.getInt(base + ChunkHeatMap.OFF_FIRST_SEEN)) / 1200.0;
+            this.redstonePerMinute = data.getInt(base + ChunkHeatMap.OFF_REDSTONE) / minutes;
+            this.fluidPerMinute = data.getInt(base + ChunkHeatMap.OFF_FLUID) / minutes;
+            this.activeSeconds = data.getInt(base + ChunkHeatMap.OFF_ACTIVE) / 20;
+
+            // Grobe Gewichtung nach typischen Tick-Kosten: Mob-AI > Tiere > Tile-Entities > Items
+            this.score = monsters * 3.0 + animals * 2.0 + tiles * 1.5 + items + other
+                    + redstonePerMinute / 20.0 + fluidPerMinute / 50.0;
+        }
+
+        public String getWorld() { return world; }
+        public int getX() { return x; }
+        public int getZ() { return z; }
+        public int getMonsters() { return monsters; }
+        public int getAnimals() { return animals; }
+        public int getItems() { return items; }
+        public int getOther() { return other; }
+        public int getTiles() { return tiles; }
+        public double getRedstonePerMinute() { return redstonePerMinute; }
+        public double getFluidPerMinute() { return fluidPerMinute; }
+        public int getActiveSeconds() { return activeSeconds; }
+        public double getScore() { return score; }
+    }
+}
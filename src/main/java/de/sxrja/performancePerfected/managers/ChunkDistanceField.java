@@ -0,0 +1,240 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chebyshev-Distanzfeld einer Welt: Abstand jedes Chunks zum nächsten Spieler-Chunk.
+ * Wird einmal per Multi-Source-BFS aufgebaut und danach nur noch lokal aktualisiert,
+ * wenn ein Spieler eine Chunk-Grenze überschreitet.
+ */
+public class ChunkDistanceField {
+
+    public static final int FAR = 100; // Gleicher Fallback wie früher ohne Spieler in der Welt
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int radius;
+
+    // Anzahl Spieler pro Quell-Chunk (mehrere Spieler können im selben Chunk stehen)
+    private final Map<Long, Integer> sources = new HashMap<>();
+
+    // Open-Addressing-Tabelle: Chunk-Key -> Distanz (nur Chunks innerhalb von radius)
+    private long[] keys;
+    private byte[] distances;
+    private int size = 0;
+    private int mask;
+
+    public ChunkDistanceField(int radius) {
+        this.radius = Math.max(1, Math.min(Byte.MAX_VALUE, radius));
+        allocate(1024);
+    }
+
+    /**
+     * FELD KOMPLETT NEU AUFBAUEN (Multi-Source-BFS über die 8er-Nachbarschaft)
+     */
+    public void rebuild(List<Long> playerChunks) {
+        sources.clear();
+        clear();
+
+        long[] queue = new long[64];
+        int head = 0, tail = 0;
+
+        for (long source : playerChunks) {
+            sources.merge(source, 1, Integer::sum);
+            if (get(source) != 0) {
+                put(source, 0);
+                if (tail == queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+                queue[tail++] = source;
+            }
+        }
+
+        while (head < tail) {
+            long current = queue[head++];
+            int next = get(current) + 1;
+            if (next > radius) continue;
+
+            int cx = ChunkKey.x(current);
+            int cz = ChunkKey.z(current);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    long neighbour = ChunkKey.pack(cx + dx, cz + dz);
+                    if (indexOf(neighbour) < 0) {
+                        put(neighbour, next);
+                        if (tail == queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * SPIELER BETRITT EINEN CHUNK: nur das Quadrat um den neuen Quell-Chunk verbessern
+     */
+    public void addSource(int x, int z) {
+        long key = ChunkKey.pack(x, z);
+        if (sources.merge(key, 1, Integer::sum) > 1) {
+            return; // Chunk war bereits Quelle
+        }
+
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                int d = Math.max(Math.abs(dx), Math.abs(dz));
+                long cell = ChunkKey.pack(x + dx, z + dz);
+                if (d < get(cell)) {
+                    put(cell, d);
+                }
+            }
+        }
+    }
+
+    /**
+     * SPIELER VERLÄSST EINEN CHUNK: nur Zellen neu berechnen, deren Wert von dieser Quelle stammen kann
+     */
+    public void removeSource(int x, int z) {
+        long key = ChunkKey.pack(x, z);
+        Integer count = sources.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            sources.put(key, count - 1);
+            return;
+        }
+        sources.remove(key);
+
+        // Nur Quellen innerhalb von 2*radius können Zellen im betroffenen Quadrat erreichen
+        List<Long> nearby = new ArrayList<>();
+        for (long source : sources.keySet()) {
+            if (chebyshev(source, x, z) <= 2 * radius) {
+                nearby.add(source);
+            }
+        }
+
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                int d = Math.max(Math.abs(dx), Math.abs(dz));
+                long cell = ChunkKey.pack(x + dx, z + dz);
+                if (get(cell) != d) {
+                    continue; // Wert stammt von einer näheren Quelle
+                }
+
+                int best = FAR;
+                for (long source : nearby) {
+                    best = Math.min(best, chebyshev(source, x + dx, z + dz));
+                }
+
+                if (best <= radius) {
+                    put(cell, best);
+                } else {
+                    remove(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * DISTANZ ZUM NÄCHSTEN SPIELER-CHUNK (FAR wenn außerhalb des Radius)
+     */
+    public int getDistance(int x, int z) {
+        return get(ChunkKey.pack(x, z));
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getTrackedChunks() {
+        return size;
+    }
+
+    public boolean hasSources() {
+        return !sources.isEmpty();
+    }
+
+    private static int chebyshev(long source, int x, int z) {
+        return Math.max(Math.abs(ChunkKey.x(source) - x), Math.abs(ChunkKey.z(source) - z));
+    }
+
+    // ========== Open-Addressing (lineares Sondieren) ==========
+
+    private int get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? FAR : distances[index];
+    }
+
+    private int indexOf(long key) {
+        int index = ChunkKey.hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void put(long key, int distance) {
+        int index = ChunkKey.hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                distances[index] = (byte) distance;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        distances[index] = (byte) distance;
+        if (++size > (mask + 1) / 2) {
+            resize((mask + 1) * 2);
+        }
+    }
+
+    private void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) return;
+
+        // Backward-Shift-Deletion, damit keine Grabsteine entstehen
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = ChunkKey.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                distances[gap] = distances[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    private void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        distances = new byte[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        byte[] oldDistances = distances;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldDistances[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package de.sxrja.performancePerfected.managers;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * Obergrenzen pro Chunk (cleanup.limits) direkt beim Spawnen.
+ * Zähler pro Chunk und Kategorie folgen EntityAddToWorld/RemoveFromWorld. Da Entities zwischen
+ * Chunks wandern, wird ein Chunk erst kurz vor dem Limit tatsächlich nachgezählt - und dann höchstens
+ * alle RECOUNT_INTERVAL Ticks, damit ein voller Chunk nicht bei jedem Spawn alle Entities durchläuft.
+ * Items und XP werden über dem Limit nur mit einer vorhandenen Entity zusammengelegt - nie gelöscht,
+ * sonst verschwinden Spieler-Drops und Beute. Mobs werden nur bei natürlichem Spawnen abgelehnt.
+ */
+public class ChunkEntityCaps implements Listener {
+
+    private static final int ITEMS = 0;
+    private static final int XP = 1;
+    private static final int FIRST_MOB = 2;
+
+    // Ab diesem Füllstand (in Prozent des Limits) wird vor der Entscheidung nachgezählt
+    private static final int RECOUNT_PERCENT = 90;
+    // Mindestabstand zwischen zwei Nachzählungen desselben Chunks
+    private static final int RECOUNT_INTERVAL = 40;
+    private static final int NEVER = Integer.MIN_VALUE / 2;
+
+    private int itemCap = 0;
+    private int xpCap = 0;
+    // EntityType-Ordinal -> Zähler-Index (-1 = kein Limit)
+    private int[] mobIndex = new int[EntityType.values().length];
+    private int[] caps = new int[FIRST_MOB];
+
+    // Welt -> Chunk-Key -> Zähler pro Kategorie, letzter Eintrag = Tick der letzten Nachzählung
+    private final Map<UUID, Map<Long, int[]>> counters = new HashMap<>();
+
+    private long deniedSpawns = 0;
+    private long mergedSpawns = 0;
+
+    public ChunkEntityCaps() {
+        Arrays.fill(mobIndex, -1);
+    }
+
+    /**
+     * LIMITS SETZEN (0 = kein Limit) - Zähler werden verworfen und beim nächsten Limit-Check neu erhoben
+     */
+    public void configure(int itemCap, int xpCap, Map<EntityType, Integer> mobCaps) {
+        this.itemCap = Math.max(0, itemCap);
+        this.xpCap = Math.max(0, xpCap);
+
+        Arrays.fill(mobIndex, -1);
+        caps = new int[FIRST_MOB + mobCaps.size()];
+        caps[ITEMS] = this.itemCap;
+        caps[XP] = this.xpCap;
+
+        int next = FIRST_MOB;
+        for (Map.Entry<EntityType, Integer> entry : mobCaps.entrySet()) {
+            mobIndex[entry.getKey().ordinal()] = next;
+            caps[next++] = Math.max(0, entry.getValue());
+        }
+        counters.clear();
+    }
+
+    public boolean hasLimits() {
+        for (int cap : caps) {
+            if (cap > 0) return true;
+        }
+        return false;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent event) {
+        Entity entity = event.getEntity();
+        int category = categoryOf(entity);
+        if (category < 0 || caps[category] <= 0) return;
+
+        if (category >= FIRST_MOB) {
+            // Zucht, Spawn-Eier, Plugins und Befehle bewusst nicht begrenzen - sonst gehen Farmen kaputt
+            if (!(event instanceof CreatureSpawnEvent)
+                    || ((CreatureSpawnEvent) event).getSpawnReason() != CreatureSpawnEvent.SpawnReason.NATURAL) {
+                return;
+            }
+        }
+
+        Location loc = event.getLocation();
+        World world = loc.getWorld();
+        if (world == null) return;
+
+        int chunkX = loc.getBlockX() >> 4;
+        int chunkZ = loc.getBlockZ() >> 4;
+        if (!isAtCap(world, chunkX, chunkZ, category)) return;
+
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        if (category == ITEMS) {
+            if (mergeItem((Item) entity, chunk)) {
+                mergedSpawns++;
+                event.setCancelled(true);
+            }
+            return; // Kein passender Stapel: Item bleibt liegen
+        }
+        if (category == XP) {
+            if (mergeExperience((ExperienceOrb) entity, chunk)) {
+                mergedSpawns++;
+                event.setCancelled(true);
+            }
+            return;
+        }
+        deniedSpawns++;
+        event.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        int category = categoryOf(event.getEntity());
+        if (category < 0) return;
+
+        Location loc = event.getEntity().getLocation();
+        int[] counts = counters.computeIfAbsent(event.getWorld().getUID(), uid -> new HashMap<>())
+                .computeIfAbsent(ChunkKey.pack(loc.getBlockX() >> 4, loc.getBlockZ() >> 4), key -> newCounts());
+        counts[category]++;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        int category = categoryOf(event.getEntity());
+        if (category < 0) return;
+
+        Map<Long, int[]> worldCounters = counters.get(event.getWorld().getUID());
+        if (worldCounters == null) return;
+
+        Location loc = event.getEntity().getLocation();
+        int[] counts = worldCounters.get(ChunkKey.pack(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+        if (counts != null && counts[category] > 0) {
+            counts[category]--; // Gewandert? Dann stimmt der Chunk nicht - wird beim Nachzählen korrigiert
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Map<Long, int[]> worldCounters = counters.get(event.getWorld().getUID());
+        if (worldCounters != null) {
+            worldCounters.remove(ChunkKey.pack(event.getChunk().getX(), event.getChunk().getZ()));
+        }
+    }
+
+    /**
+     * LIMIT-PRÜFUNG: O(1) über den Zähler, nachgezählt wird nur in der Nähe des Limits
+     * und nur, wenn die letzte Nachzählung des Chunks mindestens RECOUNT_INTERVAL Ticks zurückliegt
+     */
+    private boolean isAtCap(World world, int chunkX, int chunkZ, int category) {
+        int cap = caps[category];
+        Map<Long, int[]> worldCounters = counters.computeIfAbsent(world.getUID(), uid -> new HashMap<>());
+        long key = ChunkKey.pack(chunkX, chunkZ);
+        int[] counts = worldCounters.get(key);
+
+        if (counts != null && counts[category] * 100 < cap * RECOUNT_PERCENT) {
+            return false;
+        }
+        int currentTick = Bukkit.getCurrentTick();
+        if (counts != null && currentTick - counts[caps.length] < RECOUNT_INTERVAL) {
+            return counts[category] >= cap; // Gerade erst nachgezählt - Zähler ist aktuell genug
+        }
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return false;
+        }
+
+        counts = recount(world.getChunkAt(chunkX, chunkZ));
+        counts[caps.length] = currentTick;
+        worldCounters.put(key, counts);
+        return counts[category] >= cap;
+    }
+
+    private int[] newCounts() {
+        int[] counts = new int[caps.length + 1];
+        counts[caps.length] = NEVER;
+        return counts;
+    }
+
+    private int[] recount(Chunk chunk) {
+        int[] counts = newCounts();
+        for (Entity entity : chunk.getEntities()) {
+            int category = categoryOf(entity);
+            if (category >= 0) {
+                counts[category]++;
+            }
+        }
+        return counts;
+    }
+
+    // Item-Stapel in einen passenden Stapel im selben Chunk legen
+    private boolean mergeItem(Item item, Chunk chunk) {
+        ItemStack stack = item.getItemStack();
+        for (Entity entity : chunk.getEntities()) {
+            if (!(entity instanceof Item) || entity == item || !entity.isValid()) continue;
+
+            Item target = (Item) entity;
+            ItemStack targetStack = target.getItemStack();
+            if (targetStack.isSimilar(stack)
+                    && targetStack.getAmount() + stack.getAmount() <= targetStack.getMaxStackSize()) {
+                targetStack.setAmount(targetStack.getAmount() + stack.getAmount());
+                target.setItemStack(targetStack);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Erfahrung einer beliebigen vorhandenen Kugel im Chunk gutschreiben
+    private boolean mergeExperience(ExperienceOrb orb, Chunk chunk) {
+        for (Entity entity : chunk.getEntities()) {
+            if (entity instanceof ExperienceOrb && entity != orb && entity.isValid()) {
+                ExperienceOrb target = (ExperienceOrb) entity;
+                target.setExperience(target.getExperience() + orb.getExperience());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int categoryOf(Entity entity) {
+        if (entity instanceof Item) return itemCap > 0 ? ITEMS : -1;
+        if (entity instanceof ExperienceOrb) return xpCap > 0 ? XP : -1;
+        return mobIndex[entity.getType().ordinal()];
+    }
+
+    public void clear() {
+        counters.clear();
+    }
+
+    public long getDeniedSpawns() {
+        return deniedSpawns;
+    }
+
+    public long getMergedSpawns() {
+        return mergedSpawns;
+    }
+}
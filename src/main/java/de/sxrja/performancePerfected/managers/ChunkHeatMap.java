@@ -0,0 +1,193 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Aktivitäts-Heatmap einer Welt, off-heap in einem direkten ByteBuffer.
+ * Jeder Chunk belegt einen festen 40-Byte-Datensatz (Open Addressing, lineares Sondieren),
+ * damit auch zehntausende Chunks weder Objekte noch GC-Last erzeugen.
+ */
+public class ChunkHeatMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    // Datensatz-Layout (Byte-Offsets)
+    static final int OFF_KEY = 0;          // long  gepackter Chunk-Key
+    static final int OFF_MONSTERS = 8;     // short Monster beim letzten Sample
+    static final int OFF_ANIMALS = 10;     // short Tiere
+    static final int OFF_ITEMS = 12;       // short Items/Erfahrung
+    static final int OFF_OTHER = 14;       // short Sonstige Entities (ohne Spieler)
+    static final int OFF_TILES = 16;       // int   Tile-Entities
+    static final int OFF_REDSTONE = 20;    // int   Redstone-Events seit dem Laden
+    static final int OFF_FLUID = 24;       // int   Flüssigkeits-Flüsse seit dem Laden
+    static final int OFF_ACTIVE = 28;      // int   Ticks mit Multiplier 1
+    static final int OFF_FIRST_SEEN = 32;  // int   Server-Tick des ersten Eintrags
+    static final int OFF_LAST_SAMPLE = 36; // int   Server-Tick des letzten Samples
+    static final int RECORD = 40;
+
+    private ByteBuffer data;
+    private int mask;
+    private int size = 0;
+
+    public ChunkHeatMap() {
+        allocate(256);
+    }
+
+    /**
+     * DATENSATZ SUCHEN ODER ANLEGEN
+     * @return Byte-Offset des Datensatzes
+     */
+    public int recordFor(long key, int currentTick) {
+        int index = ChunkKey.hash(key) & mask;
+        while (true) {
+            int base = index * RECORD;
+            long existing = data.getLong(base + OFF_KEY);
+            if (existing == key) return base;
+            if (existing == EMPTY) break;
+            index = (index + 1) & mask;
+        }
+
+        if (size + 1 > (mask + 1) / 2) {
+            resize((mask + 1) * 2);
+            return recordFor(key, currentTick);
+        }
+
+        int base = index * RECORD;
+        for (int i = 0; i < RECORD; i += 4) {
+            data.putInt(base + i, 0);
+        }
+        data.putLong(base + OFF_KEY, key);
+        data.putInt(base + OFF_FIRST_SEEN, currentTick);
+        data.putInt(base + OFF_LAST_SAMPLE, currentTick);
+        size++;
+        return base;
+    }
+
+    /**
+     * Offset eines vorhandenen Datensatzes oder -1
+     */
+    public int find(long key) {
+        int index = ChunkKey.hash(key) & mask;
+        while (true) {
+            long existing = data.getLong(index * RECORD + OFF_KEY);
+            if (existing == key) return index * RECORD;
+            if (existing == EMPTY) return -1;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * SAMPLE EINES CHUNKS SCHREIBEN (Bestand + aktive Zeit seit dem letzten Sample)
+     */
+    public void sample(int base, int monsters, int animals, int items, int other, int tiles,
+                       boolean active, int currentTick) {
+        data.putShort(base + OFF_MONSTERS, clampShort(monsters));
+        data.putShort(base + OFF_ANIMALS, clampShort(animals));
+        data.putShort(base + OFF_ITEMS, clampShort(items));
+        data.putShort(base + OFF_OTHER, clampShort(other));
+        data.putInt(base + OFF_TILES, tiles);
+        if (active) {
+            data.putInt(base + OFF_ACTIVE,
+                    data.getInt(base + OFF_ACTIVE) + (currentTick - data.getInt(base + OFF_LAST_SAMPLE)));
+        }
+        data.putInt(base + OFF_LAST_SAMPLE, currentTick);
+    }
+
+    public int lastSampleTick(int base) {
+        return data.getInt(base + OFF_LAST_SAMPLE);
+    }
+
+    public void incrementRedstone(int base) {
+        data.putInt(base + OFF_REDSTONE, data.getInt(base + OFF_REDSTONE) + 1);
+    }
+
+    public void incrementFluid(int base) {
+        data.putInt(base + OFF_FLUID, data.getInt(base + OFF_FLUID) + 1);
+    }
+
+    /**
+     * DATENSATZ ENTFERNEN (Backward-Shift wie in ChunkStateTable)
+     */
+    public void remove(long key) {
+        int base = find(key);
+        if (base < 0) return;
+
+        int gap = base / RECORD;
+        int next = (gap + 1) & mask;
+        while (data.getLong(next * RECORD + OFF_KEY) != EMPTY) {
+            int home = ChunkKey.hash(data.getLong(next * RECORD + OFF_KEY)) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                copyRecord(data, next * RECORD, data, gap * RECORD);
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        data.putLong(gap * RECORD + OFF_KEY, EMPTY);
+        size--;
+    }
+
+    /**
+     * KOPIE FÜR DIE ASYNCHRONE AUSWERTUNG (ein memcpy auf dem Main-Thread)
+     */
+    public byte[] snapshot() {
+        byte[] copy = new byte[data.capacity()];
+        data.duplicate().get(copy);
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return data.capacity();
+    }
+
+    public void clear() {
+        allocate(256);
+    }
+
+    static boolean isEmptyKey(long key) {
+        return key == EMPTY;
+    }
+
+    private void allocate(int capacity) {
+        data = ByteBuffer.allocateDirect(capacity * RECORD);
+        for (int i = 0; i < capacity; i++) {
+            data.putLong(i * RECORD + OFF_KEY, EMPTY);
+        }
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        ByteBuffer old = data;
+        int oldCapacity = mask + 1;
+        allocate(capacity);
+
+        for (int i = 0; i < oldCapacity; i++) {
+            long key = old.getLong(i * RECORD + OFF_KEY);
+            if (key == EMPTY) continue;
+
+            int index = ChunkKey.hash(key) & mask;
+            while (data.getLong(index * RECORD + OFF_KEY) != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            copyRecord(old, i * RECORD, data, index * RECORD);
+            size++;
+        }
+    }
+
+    private static void copyRecord(ByteBuffer from, int fromBase, ByteBuffer to, int toBase) {
+        to.putLong(toBase, from.getLong(fromBase));
+        for (int i = 8; i < RECORD; i += 4) {
+            to.putInt(toBase + i, from.getInt(fromBase + i));
+        }
+    }
+
+    private static short clampShort(int value) {
+        return (short) Math.min(Short.MAX_VALUE, value);
+    }
+}
@@ -0,0 +1,248 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+
+import java.util.Arrays;
+
+/**
+ * Tick-Zustand aller Chunks einer Welt als Open-Addressing-Tabelle.
+ * Key ist der gepackte (x,z)-long, Multiplier und Zähler liegen in parallelen primitiven Arrays,
+ * damit Refresh und Tick-Verarbeitung keine Objekte pro Chunk erzeugen.
+ * Es werden bewusst keine Chunk-Objekte gehalten - Einträge folgen ChunkLoad/ChunkUnload.
+ */
+public class ChunkStateTable {
+
+    // Langsamste Stufe: Chunk tickt mindestens alle 64 Ticks (~3 Sekunden)
+    public static final int MAX_MULTIPLIER = 64;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int NEVER = Integer.MIN_VALUE / 2;
+
+    private long[] keys;
+    private int[] multipliers;
+    private int[] counters;
+    private int[] redstoneWindows;
+    private float[] fluidTokens;
+    private int[] fluidRefillTicks;
+    private int[] fluidAllowed;
+    private int[] fluidThrottled;
+    private int[] activeUntil;
+    private int size = 0;
+    private int mask;
+
+    public ChunkStateTable() {
+        this(1024);
+    }
+
+    private ChunkStateTable(int capacity) {
+        allocate(capacity);
+    }
+
+    /**
+     * CHUNK EINTRAGEN ODER MULTIPLIER AKTUALISIEREN (Zähler bleibt erhalten)
+     */
+    public void put(long key, int multiplier) {
+        multiplier = clampMultiplier(multiplier);
+        int index = ChunkKey.hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                multipliers[index] = multiplier;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        multipliers[index] = multiplier;
+        counters[index] = 0;
+        redstoneWindows[index] = NEVER;
+        fluidTokens[index] = 0f;
+        fluidRefillTicks[index] = NEVER;
+        fluidAllowed[index] = 0;
+        fluidThrottled[index] = 0;
+        activeUntil[index] = NEVER;
+        if (++size > (mask + 1) / 2) {
+            resize((mask + 1) * 2);
+        }
+    }
+
+    /**
+     * CHUNK ENTFERNEN (Backward-Shift-Deletion, keine Grabsteine)
+     */
+    public void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) return;
+
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = ChunkKey.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                copySlot(this, next, this, gap);
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    public int indexOf(long key) {
+        int index = ChunkKey.hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Prüft beim Besuch des Schedulers, ob der Chunk gerade einen normalen Tick hat.
+     * Der Zähler hält den Server-Tick des letzten normalen Ticks, damit Besuche in
+     * beliebigem Abstand (Round-Robin über mehrere Ticks) korrekt gezählt werden.
+     */
+    public boolean shouldSkipTick(int slot, int currentTick) {
+        if (currentTick - counters[slot] >= multipliers[slot]) {
+            counters[slot] = currentTick;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Redstone-Fenster: alle Updates im selben Tick wie das Fenster laufen durch,
+     * danach erst wieder nach multiplier Ticks. So bleiben Schaltungen in sich konsistent.
+     */
+    public boolean allowRedstoneUpdate(int slot, int currentTick) {
+        int window = redstoneWindows[slot];
+        if (currentTick == window) {
+            return true;
+        }
+        if (currentTick - window >= Math.min(MAX_MULTIPLIER, multipliers[slot])) {
+            redstoneWindows[slot] = currentTick;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Token-Bucket für Flüssigkeiten: füllt sich mit refillPerTick auf (max. capacity),
+     * jeder Fluss kostet einen Token.
+     */
+    public boolean tryConsumeFluidToken(int slot, int currentTick, double refillPerTick, double capacity) {
+        int elapsed = currentTick - fluidRefillTicks[slot];
+        if (elapsed > 0) {
+            fluidTokens[slot] = (float) Math.min(capacity, fluidTokens[slot] + elapsed * refillPerTick);
+            fluidRefillTicks[slot] = currentTick;
+        }
+
+        if (fluidTokens[slot] >= 1f) {
+            fluidTokens[slot] -= 1f;
+            fluidAllowed[slot]++;
+            return true;
+        }
+        fluidThrottled[slot]++;
+        return false;
+    }
+
+    /**
+     * Wie tryConsumeFluidToken, verbraucht aber nichts (Retry nur, wenn der Fluss auch durchkäme)
+     */
+    public boolean hasFluidToken(int slot, int currentTick, double refillPerTick, double capacity) {
+        int elapsed = currentTick - fluidRefillTicks[slot];
+        return Math.min(capacity, fluidTokens[slot] + Math.max(0, elapsed) * refillPerTick) >= 1.0;
+    }
+
+    /**
+     * Vorgezogene Aktivierung: Multiplier sofort senken und bis holdUntilTick nicht wieder anheben.
+     * @return true, wenn der Multiplier tatsächlich gesenkt wurde
+     */
+    public boolean promote(int slot, int multiplier, int holdUntilTick) {
+        multiplier = clampMultiplier(multiplier);
+        if (multiplier >= multipliers[slot]) {
+            return false;
+        }
+        multipliers[slot] = multiplier;
+        activeUntil[slot] = holdUntilTick;
+        return true;
+    }
+
+    // Darf der Multiplier dieses Slots schon wieder angehoben werden?
+    public boolean canDemote(int slot, int currentTick) {
+        return currentTick - activeUntil[slot] >= 0;
+    }
+
+    // Slot-Zugriff für die Iteration über die gesamte Tabelle
+    public int capacity() { return keys.length; }
+    public boolean isOccupied(int slot) { return keys[slot] != EMPTY; }
+    public long keyAt(int slot) { return keys[slot]; }
+    public int multiplierAt(int slot) { return multipliers[slot]; }
+    public void setMultiplier(int slot, int multiplier) { multipliers[slot] = clampMultiplier(multiplier); }
+    public int fluidAllowedAt(int slot) { return fluidAllowed[slot]; }
+    public int fluidThrottledAt(int slot) { return fluidThrottled[slot]; }
+    public int size() { return size; }
+
+    private static int clampMultiplier(int multiplier) {
+        return Math.max(1, Math.min(MAX_MULTIPLIER, multiplier));
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        multipliers = new int[capacity];
+        counters = new int[capacity];
+        redstoneWindows = new int[capacity];
+        fluidTokens = new float[capacity];
+        fluidRefillTicks = new int[capacity];
+        fluidAllowed = new int[capacity];
+        fluidThrottled = new int[capacity];
+        activeUntil = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    // Kopiert einen Slot inklusive aller parallelen Arrays (Remove + Resize)
+    private static void copySlot(ChunkStateTable from, int i, ChunkStateTable to, int j) {
+        to.keys[j] = from.keys[i];
+        to.multipliers[j] = from.multipliers[i];
+        to.counters[j] = from.counters[i];
+        to.redstoneWindows[j] = from.redstoneWindows[i];
+        to.fluidTokens[j] = from.fluidTokens[i];
+        to.fluidRefillTicks[j] = from.fluidRefillTicks[i];
+        to.fluidAllowed[j] = from.fluidAllowed[i];
+        to.fluidThrottled[j] = from.fluidThrottled[i];
+        to.activeUntil[j] = from.activeUntil[i];
+    }
+
+    private void resize(int capacity) {
+        ChunkStateTable grown = new ChunkStateTable(capacity);
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) continue;
+
+            int index = ChunkKey.hash(keys[i]) & grown.mask;
+            while (grown.keys[index] != EMPTY) {
+                index = (index + 1) & grown.mask;
+            }
+            copySlot(this, i, grown, index);
+            grown.size++;
+        }
+
+        keys = grown.keys;
+        multipliers = grown.multipliers;
+        counters = grown.counters;
+        redstoneWindows = grown.redstoneWindows;
+        fluidTokens = grown.fluidTokens;
+        fluidRefillTicks = grown.fluidRefillTicks;
+        fluidAllowed = grown.fluidAllowed;
+        fluidThrottled = grown.fluidThrottled;
+        activeUntil = grown.activeUntil;
+        size = grown.size;
+        mask = grown.mask;
+    }
+}
@@ -0,0 +1,267 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fortsetzbarer Cleanup über alle geladenen Chunks, über den Ablauf-Index oder über eine
+ * vorab aus dem EntityRegistry abgefragte Kandidatenliste.
+ * Statt world.getEntities() in einem Tick wird pro Tick nur ein Stück der Chunk-Liste
+ * (bzw. der abgelaufenen Einträge / Kandidaten) abgearbeitet - begrenzt durch Zeitbudget und
+ * maximale Entfernungen pro Tick.
+ */
+public class CleanupJob extends BukkitRunnable {
+
+    private final JavaPlugin plugin;
+    private final String name;
+    // Bearbeitet einen Chunk und liefert die Anzahl entfernter Entities
+    private final ChunkProcessor processor;
+    // Alternativ: nur abgelaufene Entities aus dem Ablauf-Index
+    private final ExpiryQueue expiryQueue;
+    // Alternativ: feste Kandidatenliste + Filter (null = behalten)
+    private final List<Entity> candidates;
+    private final Function<Entity, String> candidateFilter;
+    private int candidateIndex = 0;
+    private final long budgetNanos;
+    private final int maxRemovalsPerTick;
+    private final Consumer<CleanupJob> onFinish;
+
+    // Chunk-Koordinaten beim Start (keine Chunk-Objekte über Ticks hinweg halten)
+    private final List<UUID> worlds = new ArrayList<>();
+    private final List<int[]> chunkCoords = new ArrayList<>();
+    private int worldIndex = 0;
+    private int chunkIndex = 0;
+
+    private final Map<String, Integer> removedByCategory = new TreeMap<>();
+    private int totalChunks = 0;
+    private int processedChunks = 0;
+    private int totalRemoved = 0;
+    private int startTick;
+    private int ticksUsed = 0;
+    private long maxTickNanos = 0;
+    private boolean finished = false;
+
+    public CleanupJob(JavaPlugin plugin, String name, ChunkProcessor processor,
+                      long budgetNanos, int maxRemovalsPerTick, Consumer<CleanupJob> onFinish) {
+        this(plugin, name, processor, null, null, null, budgetNanos, maxRemovalsPerTick, onFinish);
+    }
+
+    public CleanupJob(JavaPlugin plugin, String name, ExpiryQueue expiryQueue,
+                      long budgetNanos, int maxRemovalsPerTick, Consumer<CleanupJob> onFinish) {
+        this(plugin, name, null, expiryQueue, null, null, budgetNanos, maxRemovalsPerTick, onFinish);
+    }
+
+    /**
+     * Nur die übergebenen Kandidaten prüfen (z.B. alle Items aus dem EntityRegistry)
+     */
+    public CleanupJob(JavaPlugin plugin, String name, List<Entity> candidates, Function<Entity, String> filter,
+                      long budgetNanos, int maxRemovalsPerTick, Consumer<CleanupJob> onFinish) {
+        this(plugin, name, null, null, candidates, filter, budgetNanos, maxRemovalsPerTick, onFinish);
+    }
+
+    private CleanupJob(JavaPlugin plugin, String name, ChunkProcessor processor, ExpiryQueue expiryQueue,
+                       List<Entity> candidates, Function<Entity, String> candidateFilter,
+                       long budgetNanos, int maxRemovalsPerTick, Consumer<CleanupJob> onFinish) {
+        this.plugin = plugin;
+        this.name = name;
+        this.processor = processor;
+        this.expiryQueue = expiryQueue;
+        this.candidates = candidates;
+        this.candidateFilter = candidateFilter;
+        this.budgetNanos = budgetNanos;
+        this.maxRemovalsPerTick = maxRemovalsPerTick;
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * JOB STARTEN: Chunk-Liste einsammeln und ab dem nächsten Tick stückweise abarbeiten
+     */
+    public CleanupJob start() {
+        for (World world : processor == null ? Collections.<World>emptyList() : Bukkit.getWorlds()) {
+            Chunk[] loaded = world.getLoadedChunks();
+            int[] coords = new int[loaded.length * 2];
+            for (int i = 0; i < loaded.length; i++) {
+                coords[i * 2] = loaded[i].getX();
+                coords[i * 2 + 1] = loaded[i].getZ();
+            }
+            worlds.add(world.getUID());
+            chunkCoords.add(coords);
+            totalChunks += loaded.length;
+        }
+
+        startTick = Bukkit.getCurrentTick();
+        runTaskTimer(plugin, 1L, 1L);
+        return this;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int removedThisTick = 0;
+        ticksUsed++;
+
+        if (expiryQueue != null) {
+            int before = totalRemovedIn(removedByCategory);
+            boolean drained = expiryQueue.drainExpired(Bukkit.getCurrentTick(), maxRemovalsPerTick, deadline, removedByCategory);
+            totalRemoved += totalRemovedIn(removedByCategory) - before;
+            maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+            if (drained) {
+                finish();
+            }
+            return;
+        }
+
+        if (candidates != null) {
+            while (candidateIndex < candidates.size()) {
+                Entity entity = candidates.get(candidateIndex++);
+                // Inzwischen entfernt oder entladen
+                if (!entity.isValid()) continue;
+
+                String category = candidateFilter.apply(entity);
+                if (category == null) continue;
+
+                entity.remove();
+                removedByCategory.merge(category, 1, Integer::sum);
+                totalRemoved++;
+                if (++removedThisTick >= maxRemovalsPerTick || System.nanoTime() >= deadline) {
+                    maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+                    return;
+                }
+            }
+            maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+            finish();
+            return;
+        }
+
+        while (worldIndex < worlds.size()) {
+            World world = Bukkit.getWorld(worlds.get(worldIndex));
+            int[] coords = chunkCoords.get(worldIndex);
+
+            if (world == null || chunkIndex * 2 >= coords.length) {
+                worldIndex++;
+                chunkIndex = 0;
+                continue;
+            }
+
+            int x = coords[chunkIndex * 2];
+            int z = coords[chunkIndex * 2 + 1];
+
+            // Inzwischen entladene Chunks überspringen - nichts nachladen
+            boolean chunkDone = true;
+            if (world.isChunkLoaded(x, z)) {
+                int remaining = maxRemovalsPerTick - removedThisTick;
+                int removed = processor.process(world.getChunkAt(x, z), remaining, removedByCategory);
+                totalRemoved += removed;
+                removedThisTick += removed;
+                // Limit im Chunk erreicht: denselben Chunk im nächsten Tick fortsetzen
+                chunkDone = removed < remaining;
+            }
+            if (chunkDone) {
+                chunkIndex++;
+                processedChunks++;
+            }
+
+            if (removedThisTick >= maxRemovalsPerTick || System.nanoTime() >= deadline) {
+                maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+                return; // Im nächsten Tick beim nächsten Chunk weitermachen
+            }
+        }
+
+        maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+        finish();
+    }
+
+    /**
+     * JOB ABBRECHEN (z.B. beim Deaktivieren) - bisherige Zahlen bleiben erhalten
+     */
+    public void abort() {
+        if (finished) return;
+        finished = true;
+        cancel();
+    }
+
+    private void finish() {
+        finished = true;
+        cancel();
+        if (onFinish != null) {
+            onFinish.accept(this);
+        }
+    }
+
+    private static int totalRemovedIn(Map<String, Integer> counts) {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public String getSummary() {
+        String scope = expiryQueue != null ? "expired"
+                : candidates != null ? "of " + candidates.size() + " candidates"
+                : "in " + processedChunks + " chunks";
+        StringBuilder summary = new StringBuilder(String.format(
+                "%s: %d entities removed (%s) over %d ticks (max %.2fms/tick)",
+                name, totalRemoved, scope, ticksUsed, maxTickNanos / 1_000_000.0));
+        if (!removedByCategory.isEmpty()) {
+            StringJoiner joiner = new StringJoiner(", ", " - ", "");
+            for (Map.Entry<String, Integer> entry : removedByCategory.entrySet()) {
+                joiner.add(entry.getKey() + ": " + entry.getValue());
+            }
+            summary.append(joiner);
+        }
+        return summary.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int getRemoved(String category) {
+        return removedByCategory.getOrDefault(category, 0);
+    }
+
+    public int getTotalRemoved() {
+        return totalRemoved;
+    }
+
+    public int getProcessedChunks() {
+        return processedChunks;
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public double getProgress() {
+        if (candidates != null) {
+            return candidates.isEmpty() ? 100.0 : candidateIndex * 100.0 / candidates.size();
+        }
+        return totalChunks > 0 ? processedChunks * 100.0 / totalChunks : 100.0;
+    }
+
+    public int getElapsedTicks() {
+        return Bukkit.getCurrentTick() - startTick;
+    }
+
+    /**
+     * Arbeitsschritt für einen einzelnen Chunk
+     */
+    public interface ChunkProcessor {
+        // Entfernt höchstens limit Entities, zählt sie pro Kategorie in removed und gibt ihre Summe zurück
+        int process(Chunk chunk, int limit, Map<String, Integer> removed);
+    }
+}
@@ -1,9 +1,13 @@
 package de.sxrja.performancePerfected.managers;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.ChatColor;
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ConfigManager {
 
@@ -94,11 +98,85 @@ public class ConfigManager {
         return Math.max(1, getActiveConfig().getInt("lazy-chunks.min-distance", 1));
     }
 
-    public double getAdaptiveTPSThreshold() {
+    public double getAdaptiveTargetMspt() {
         if (!useAdvancedConfig) {
-            return 15.0;
+            return 40.0;
         }
-        return getActiveConfig().getDouble("lazy-chunks.adaptive-tps-threshold", 15.0);
+        return getActiveConfig().getDouble("lazy-chunks.adaptive-target-mspt", 40.0);
+    }
+
+    // Welche MSPT-Kennzahl Regler und Fluid-Drosselung verwenden (z.B. "avg:5s", "p95:5s")
+    public String getLazyMsptMetric() {
+        if (!useAdvancedConfig) {
+            return "avg:5s";
+        }
+        return TickSampler.normalizeMetric(getActiveConfig().getString("lazy-chunks.adaptive-mspt-metric", "avg:5s"), "avg:5s");
+    }
+
+    public double getAdaptiveHysteresisMspt() {
+        if (!useAdvancedConfig) {
+            return 5.0;
+        }
+        return Math.max(0.0, getActiveConfig().getDouble("lazy-chunks.adaptive-hysteresis-mspt", 5.0));
+    }
+
+    public boolean isLazySkipRedstone() {
+        if (!useAdvancedConfig) {
+            return false;
+        }
+        return getActiveConfig().getBoolean("lazy-chunks.skip-redstone", true);
+    }
+
+    public boolean isLazySkipCrops() {
+        if (!useAdvancedConfig) {
+            return false;
+        }
+        return getActiveConfig().getBoolean("lazy-chunks.skip-crops", false);
+    }
+
+    public boolean isLazySkipFluids() {
+        if (!useAdvancedConfig) {
+            return true;
+        }
+        return getActiveConfig().getBoolean("lazy-chunks.skip-fluids", true);
+    }
+
+    public boolean isLazyHeatmapEnabled() {
+        if (!useAdvancedConfig) {
+            return false;
+        }
+        return getActiveConfig().getBoolean("lazy-chunks.heatmap", false);
+    }
+
+    // Vorausschau in Ticks für schnelle Spieler (0 = aus)
+    public int getLazyPredictiveLookaheadTicks() {
+        if (!useAdvancedConfig) {
+            return 60;
+        }
+        return Math.max(0, getActiveConfig().getInt("lazy-chunks.predictive-lookahead-ticks", 60));
+    }
+
+    // Fluid-Flüsse pro Chunk und Tick (Token-Bucket-Kapazität)
+    public int getFluidTickRate() {
+        if (!useAdvancedConfig) {
+            return 10;
+        }
+        return Math.max(1, getActiveConfig().getInt("world-settings.default.tick-rates.fluid", 10));
+    }
+
+    // Ab dieser MSPT werden Flüssigkeiten auch in aktiven Chunks gedrosselt
+    public double getFluidMsptThreshold() {
+        if (!useAdvancedConfig) {
+            return 45.0;
+        }
+        return getActiveConfig().getDouble("emergency.mspt-threshold", 45.0);
+    }
+
+    public long getLazyChunksTickBudgetNanos() {
+        if (!useAdvancedConfig) {
+            return 500_000L;
+        }
+        return Math.max(50_000L, getActiveConfig().getLong("lazy-chunks.tick-budget-nanos", 500_000L));
     }
 
     public boolean isLazyChunksLogging() {
@@ -166,6 +244,47 @@ public class ConfigManager {
         return "";
     }
 
+    // Spawn-Limits pro Chunk (0 = kein Limit)
+    public int getMaxItemsPerChunk() {
+        if (!useAdvancedConfig) {
+            return 0;
+        }
+        return Math.max(0, getActiveConfig().getInt("cleanup.limits.max-items-per-chunk", 0));
+    }
+
+    public int getMaxExperienceOrbsPerChunk() {
+        if (!useAdvancedConfig) {
+            return 0;
+        }
+        return Math.max(0, getActiveConfig().getInt("cleanup.limits.max-experience-orbs-per-chunk", 0));
+    }
+
+    /**
+     * MOB-LIMITS PRO CHUNK (cleanup.limits.mobs.<ENTITY_TYPE>: anzahl)
+     */
+    public Map<EntityType, Integer> getMobCapsPerChunk() {
+        Map<EntityType, Integer> caps = new LinkedHashMap<>();
+        if (!useAdvancedConfig) {
+            return caps;
+        }
+
+        ConfigurationSection section = getActiveConfig().getConfigurationSection("cleanup.limits.mobs");
+        if (section == null) {
+            return caps;
+        }
+        for (String key : section.getKeys(false)) {
+            try {
+                int cap = section.getInt(key, 0);
+                if (cap > 0) {
+                    caps.put(EntityType.valueOf(key.toUpperCase()), cap);
+                }
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Unknown entity type in cleanup.limits.mobs: " + key);
+            }
+        }
+        return caps;
+    }
+
     // Getter für aktuelle Sprache
     public String getLanguage() {
         return language;
@@ -0,0 +1,210 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Ageable;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random-Tick-Drosselung für Lazy Chunks (lazy-chunks.skip-crops).
+ * Wachstum, Ausbreitung und Blattzerfall laufen dort nur mit Wahrscheinlichkeit 1/multiplier durch.
+ * Verworfenes Pflanzenwachstum wird gemerkt und in Batches nachgeholt, sobald ein Spieler den Chunk aktiviert.
+ */
+public class CropThrottler implements Listener {
+
+    private static final int MIN_MULTIPLIER = 4;
+    private static final int MAX_DEFERRED_PER_CHUNK = 512;
+    private static final int CATCH_UP_PER_TICK = 64;
+
+    private final LazyChunkManager lazyChunkManager;
+
+    // Welt -> Chunk-Key -> gemerkte Block-Positionen
+    private final Map<UUID, Map<Long, DeferredGrowth>> deferred = new HashMap<>();
+    private final ArrayDeque<CatchUp> catchUpQueue = new ArrayDeque<>();
+
+    private long deferredEvents = 0;
+    private long caughtUpGrowth = 0;
+
+    public CropThrottler(LazyChunkManager lazyChunkManager) {
+        this.lazyChunkManager = lazyChunkManager;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        Block block = event.getBlock();
+        if (shouldDefer(block)) {
+            event.setCancelled(true);
+            remember(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        // Ausbreitung (Gras, Myzel, Ranken) wird nur verzögert - Random Ticks versuchen es erneut
+        if (shouldDefer(event.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        if (shouldDefer(event.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    private boolean shouldDefer(Block block) {
+        int multiplier = lazyChunkManager.getChunkMultiplier(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+        if (multiplier < MIN_MULTIPLIER) {
+            return false;
+        }
+        if (ThreadLocalRandom.current().nextInt(multiplier) == 0) {
+            return false; // Im Schnitt läuft jedes multiplier-te Ereignis normal durch
+        }
+        deferredEvents++;
+        return true;
+    }
+
+    private void remember(Block block) {
+        long chunkKey = ChunkKey.pack(block.getX() >> 4, block.getZ() >> 4);
+        deferred.computeIfAbsent(block.getWorld().getUID(), uid -> new HashMap<>())
+                .computeIfAbsent(chunkKey, key -> new DeferredGrowth())
+                .add(packBlock(block.getX(), block.getY(), block.getZ()));
+    }
+
+    /**
+     * CHUNK IST AKTIV GEWORDEN: gemerktes Wachstum zum Nachholen einreihen
+     */
+    public void onChunkActivated(World world, long chunkKey) {
+        Map<Long, DeferredGrowth> worldDeferred = deferred.get(world.getUID());
+        if (worldDeferred == null) return;
+
+        DeferredGrowth growth = worldDeferred.remove(chunkKey);
+        if (growth != null && growth.size > 0) {
+            catchUpQueue.add(new CatchUp(world.getUID(), chunkKey, growth));
+        }
+    }
+
+    public void onChunkUnload(World world, long chunkKey) {
+        Map<Long, DeferredGrowth> worldDeferred = deferred.get(world.getUID());
+        if (worldDeferred != null) {
+            worldDeferred.remove(chunkKey);
+        }
+    }
+
+    /**
+     * NACHHOLEN IN BATCHES (max. CATCH_UP_PER_TICK Blöcke pro Tick)
+     */
+    public void processCatchUp() {
+        int budget = CATCH_UP_PER_TICK;
+
+        while (budget > 0 && !catchUpQueue.isEmpty()) {
+            CatchUp catchUp = catchUpQueue.peek();
+            World world = Bukkit.getWorld(catchUp.world);
+            if (world == null || !world.isChunkLoaded(ChunkKey.x(catchUp.chunkKey), ChunkKey.z(catchUp.chunkKey))) {
+                catchUpQueue.poll();
+                continue;
+            }
+
+            DeferredGrowth growth = catchUp.growth;
+            while (budget > 0 && catchUp.index < growth.size) {
+                long pos = growth.positions[catchUp.index++];
+                if (grow(world.getBlockAt(blockX(pos), blockY(pos), blockZ(pos)))) {
+                    caughtUpGrowth++;
+                }
+                budget--;
+            }
+
+            if (catchUp.index >= growth.size) {
+                catchUpQueue.poll();
+            }
+        }
+    }
+
+    private boolean grow(Block block) {
+        BlockData data = block.getBlockData();
+        if (!(data instanceof Ageable)) {
+            return false; // z.B. Melonen/Kürbisse neben dem Stiel - nicht rekonstruierbar
+        }
+
+        Ageable ageable = (Ageable) data;
+        if (ageable.getAge() >= ageable.getMaximumAge()) {
+            return false;
+        }
+        ageable.setAge(ageable.getAge() + 1);
+        block.setBlockData(ageable);
+        return true;
+    }
+
+    public void clear() {
+        deferred.clear();
+        catchUpQueue.clear();
+    }
+
+    public long getDeferredEvents() {
+        return deferredEvents;
+    }
+
+    public long getCaughtUpGrowth() {
+        return caughtUpGrowth;
+    }
+
+    public int getPendingCatchUp() {
+        int pending = 0;
+        for (CatchUp catchUp : catchUpQueue) {
+            pending += catchUp.growth.size - catchUp.index;
+        }
+        return pending;
+    }
+
+    // Block-Position im BlockPos-Layout (26 Bit x, 26 Bit z, 12 Bit y)
+    private static long packBlock(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int blockX(long pos) { return (int) (pos >> 38); }
+    private static int blockZ(long pos) { return (int) (pos << 26 >> 38); }
+    private static int blockY(long pos) { return (int) (pos << 52 >> 52); }
+
+    // Hilfsklassen
+    private static class DeferredGrowth {
+        private long[] positions = new long[16];
+        private int size = 0;
+
+        public void add(long pos) {
+            if (size == MAX_DEFERRED_PER_CHUNK) return; // Obergrenze pro Chunk
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, Math.min(MAX_DEFERRED_PER_CHUNK, positions.length * 2));
+            }
+            positions[size++] = pos;
+        }
+    }
+
+    private static class CatchUp {
+        private final UUID world;
+        private final long chunkKey;
+        private final DeferredGrowth growth;
+        private int index = 0;
+
+        public CatchUp(UUID world, long chunkKey, DeferredGrowth growth) {
+            this.world = world;
+            this.chunkKey = chunkKey;
+            this.growth = growth;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package de.sxrja.performancePerfected.managers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eskalationsleiter für das Notfallprotokoll.
+ * Jede Prüfung bei Überlast geht höchstens eine Stufe weiter - und nur, wenn seit der
+ * letzten Stufe der Cooldown abgelaufen ist und sich der Messwert nicht spürbar erholt hat.
+ * Zurückgestuft wird erst, wenn der Messwert mehrere Prüfungen in Folge deutlich im grünen Bereich liegt.
+ * Gemessen wird wahlweise TPS (niedriger = schlechter) oder MSPT (höher = schlechter).
+ */
+public class EmergencyLadder {
+
+    public enum Stage {
+        GROUND_ITEMS, PROJECTILES, VEHICLES, LAZY_RADIUS, MOBS, HANGING
+    }
+
+    public enum Transition {
+        NONE, ESCALATED, REPEATED, DEESCALATED
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private double threshold = 15.0;
+    private boolean higherIsWorse = false;
+    private long stageCooldownMillis = 30_000;
+    private double recoveryGain = 1.0;
+    private double recoverMargin = 2.0;
+    private int recoverChecks = 6;
+
+    // 0 = normal, n = die ersten n Stufen sind aktiv
+    private int level = 0;
+    private long lastChangeMillis = 0;
+    private double valueAtLastChange = 0;
+    private int healthyChecks = 0;
+
+    public void configure(List<Stage> enabledStages, double threshold, boolean higherIsWorse, long stageCooldownMillis,
+                          double recoveryGain, double recoverMargin, int recoverChecks) {
+        stages.clear();
+        stages.addAll(enabledStages);
+        this.threshold = threshold;
+        this.higherIsWorse = higherIsWorse;
+        this.stageCooldownMillis = Math.max(0, stageCooldownMillis);
+        this.recoveryGain = Math.max(0, recoveryGain);
+        this.recoverMargin = Math.max(0, recoverMargin);
+        this.recoverChecks = Math.max(1, recoverChecks);
+        level = Math.min(level, stages.size());
+    }
+
+    /**
+     * EINE PRÜFUNG
+     * Nach ESCALATED/REPEATED liefert getCurrentStage() die auszuführende Stufe,
+     * nach DEESCALATED getLeftStage() die verlassene.
+     */
+    public Transition evaluate(double value, long nowMillis) {
+        // Abstand zur Schwelle bzw. Verbesserung, jeweils positiv = besser
+        double headroom = higherIsWorse ? threshold - value : value - threshold;
+        double improvement = higherIsWorse ? valueAtLastChange - value : value - valueAtLastChange;
+
+        if (headroom < 0) {
+            healthyChecks = 0;
+            boolean cooledDown = level == 0 || nowMillis - lastChangeMillis >= stageCooldownMillis;
+            if (!cooledDown || stages.isEmpty()) return Transition.NONE;
+
+            // Erholt sich der Server (oder ist die oberste Stufe erreicht), wird die aktuelle Stufe wiederholt
+            boolean recovering = level > 0 && improvement >= recoveryGain;
+            if (recovering || level >= stages.size()) {
+                lastChangeMillis = nowMillis;
+                valueAtLastChange = value;
+                return Transition.REPEATED;
+            }
+
+            level++;
+            lastChangeMillis = nowMillis;
+            valueAtLastChange = value;
+            return Transition.ESCALATED;
+        }
+
+        if (level == 0) return Transition.NONE;
+
+        // Hysterese: erst nach mehreren guten Prüfungen deutlich über der Schwelle zurückstufen
+        if (headroom >= recoverMargin) {
+            healthyChecks++;
+        } else {
+            healthyChecks = 0;
+        }
+        if (healthyChecks < recoverChecks) return Transition.NONE;
+
+        healthyChecks = 0;
+        lastChangeMillis = nowMillis;
+        valueAtLastChange = value;
+        level--;
+        return Transition.DEESCALATED;
+    }
+
+    // Zuletzt verlassene Stufe (direkt über dem aktuellen Level)
+    public Stage getLeftStage() {
+        return level < stages.size() ? stages.get(level) : null;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Stage getCurrentStage() {
+        return level > 0 ? stages.get(level - 1) : null;
+    }
+
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    public void reset() {
+        level = 0;
+        healthyChecks = 0;
+        lastChangeMillis = 0;
+        valueAtLastChange = 0;
+    }
+}
@@ -0,0 +1,412 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Entity-Zählung für /pp analyze.
+ * Main-Thread: pro Tick nur ein zeitbegrenztes Stück der Chunk-Liste abtasten und Typ, Welt,
+ * Position und Alter jeder Entity in primitive Arrays kopieren. Die Auswertung (nach Typ, Chunk
+ * und Spielernähe) läuft danach verteilt auf dem Async-Pool des Schedulers; der Bericht kommt
+ * wieder auf dem Main-Thread an.
+ */
+public class EntityCensus extends BukkitRunnable {
+
+    // Zeitbudget für das Abtasten pro Tick
+    private static final long SLICE_BUDGET_NANOS = 1_000_000L;
+    // Entities so nah an einem Spieler zählen für dessen Umgebung
+    private static final int VICINITY_RADIUS = 64;
+    // Einträge pro Async-Teilaufgabe
+    private static final int PARTITION_SIZE = 16_384;
+    private static final int TOP = 10;
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    private final JavaPlugin plugin;
+    private final Consumer<Report> onFinish;
+
+    // Chunk-Koordinaten beim Start (wie CleanupJob)
+    private final List<World> worlds = new ArrayList<>();
+    private final List<String> worldNames = new ArrayList<>();
+    private final List<int[]> chunkCoords = new ArrayList<>();
+    private int worldIndex = 0;
+    private int chunkIndex = 0;
+    private int totalChunks = 0;
+    private int processedChunks = 0;
+
+    // Spieler beim Start: Name, Welt-Index, Block-Position
+    private final List<String> playerNames = new ArrayList<>();
+    private int[] playerWorld = new int[0];
+    private int[] playerX = new int[0];
+    private int[] playerZ = new int[0];
+
+    // Momentaufnahme (Structure of Arrays)
+    private int size = 0;
+    private short[] type = new short[4096];
+    private byte[] world = new byte[4096];
+    private int[] blockX = new int[4096];
+    private int[] blockZ = new int[4096];
+    private int[] age = new int[4096];
+
+    private int snapshotTicks = 0;
+    private long maxTickNanos = 0;
+    private boolean finished = false;
+
+    public EntityCensus(JavaPlugin plugin, Consumer<Report> onFinish) {
+        this.plugin = plugin;
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * ZÄHLUNG STARTEN: Chunk-Liste und Spieler einsammeln, dann Tick für Tick abtasten
+     */
+    public EntityCensus start() {
+        for (World w : Bukkit.getWorlds()) {
+            if (worlds.size() > Byte.MAX_VALUE) break; // Welt-Index passt in ein byte
+            Chunk[] loaded = w.getLoadedChunks();
+            int[] coords = new int[loaded.length * 2];
+            for (int i = 0; i < loaded.length; i++) {
+                coords[i * 2] = loaded[i].getX();
+                coords[i * 2 + 1] = loaded[i].getZ();
+            }
+            worlds.add(w);
+            worldNames.add(w.getName());
+            chunkCoords.add(coords);
+            totalChunks += loaded.length;
+        }
+
+        Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+        playerWorld = new int[online.size()];
+        playerX = new int[online.size()];
+        playerZ = new int[online.size()];
+        int p = 0;
+        for (Player player : online) {
+            Location loc = player.getLocation();
+            playerNames.add(player.getName());
+            playerWorld[p] = worlds.indexOf(player.getWorld());
+            playerX[p] = loc.getBlockX();
+            playerZ[p] = loc.getBlockZ();
+            p++;
+        }
+
+        runTaskTimer(plugin, 1L, 1L);
+        return this;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long deadline = start + SLICE_BUDGET_NANOS;
+        snapshotTicks++;
+
+        while (worldIndex < worlds.size()) {
+            World w = worlds.get(worldIndex);
+            int[] coords = chunkCoords.get(worldIndex);
+            if (chunkIndex * 2 >= coords.length) {
+                worldIndex++;
+                chunkIndex = 0;
+                continue;
+            }
+
+            int x = coords[chunkIndex * 2];
+            int z = coords[chunkIndex * 2 + 1];
+            chunkIndex++;
+            processedChunks++;
+
+            if (w.isChunkLoaded(x, z)) {
+                for (Entity entity : w.getChunkAt(x, z).getEntities()) {
+                    if (entity instanceof Player) continue;
+                    append(entity, worldIndex);
+                }
+            }
+
+            if (System.nanoTime() >= deadline) {
+                maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+                return;
+            }
+        }
+
+        maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - start);
+        cancel();
+        analyzeAsync();
+    }
+
+    private void append(Entity entity, int worldIdx) {
+        if (size == type.length) {
+            int capacity = size * 2;
+            type = Arrays.copyOf(type, capacity);
+            world = Arrays.copyOf(world, capacity);
+            blockX = Arrays.copyOf(blockX, capacity);
+            blockZ = Arrays.copyOf(blockZ, capacity);
+            age = Arrays.copyOf(age, capacity);
+        }
+        Location loc = entity.getLocation();
+        type[size] = (short) entity.getType().ordinal();
+        world[size] = (byte) worldIdx;
+        blockX[size] = loc.getBlockX();
+        blockZ[size] = loc.getBlockZ();
+        age[size] = entity.getTicksLived();
+        size++;
+    }
+
+    /**
+     * AUSWERTUNG: Teilstücke parallel auf dem Async-Pool, das letzte fertige führt zusammen
+     */
+    private void analyzeAsync() {
+        long analysisStart = System.nanoTime();
+        int partitions = Math.max(1, (size + PARTITION_SIZE - 1) / PARTITION_SIZE);
+        Partial[] partials = new Partial[partitions];
+        AtomicInteger remaining = new AtomicInteger(partitions);
+        PlayerGrid grid = new PlayerGrid();
+
+        for (int i = 0; i < partitions; i++) {
+            int index = i;
+            int from = i * PARTITION_SIZE;
+            int to = Math.min(size, from + PARTITION_SIZE);
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                partials[index] = aggregate(from, to, grid);
+                if (remaining.decrementAndGet() == 0) {
+                    Report report = merge(partials, System.nanoTime() - analysisStart);
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        finished = true;
+                        onFinish.accept(report);
+                    });
+                }
+            });
+        }
+    }
+
+    private Partial aggregate(int from, int to, PlayerGrid grid) {
+        Partial partial = new Partial(worlds.size(), playerNames.size());
+        for (int i = from; i < to; i++) {
+            partial.typeCount[type[i]]++;
+            partial.typeAge[type[i]] += age[i];
+
+            long key = ChunkKey.pack(blockX[i] >> 4, blockZ[i] >> 4);
+            partial.chunkCount[world[i]].merge(key, 1, Integer::sum);
+
+            grid.countNearby(world[i], blockX[i], blockZ[i], partial.playerCount);
+        }
+        return partial;
+    }
+
+    private Report merge(Partial[] partials, long analysisNanosSoFar) {
+        long mergeStart = System.nanoTime();
+        long[] typeCount = new long[TYPES.length];
+        long[] typeAge = new long[TYPES.length];
+        int[] playerCount = new int[playerNames.size()];
+        List<Map<Long, Integer>> chunks = new ArrayList<>();
+        for (int w = 0; w < worlds.size(); w++) {
+            chunks.add(new HashMap<>());
+        }
+
+        for (Partial partial : partials) {
+            for (int t = 0; t < TYPES.length; t++) {
+                typeCount[t] += partial.typeCount[t];
+                typeAge[t] += partial.typeAge[t];
+            }
+            for (int p = 0; p < playerCount.length; p++) {
+                playerCount[p] += partial.playerCount[p];
+            }
+            for (int w = 0; w < worlds.size(); w++) {
+                Map<Long, Integer> target = chunks.get(w);
+                for (Map.Entry<Long, Integer> entry : partial.chunkCount[w].entrySet()) {
+                    target.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                }
+            }
+        }
+
+        Report report = new Report(size, totalChunks, snapshotTicks, maxTickNanos);
+
+        // Typen
+        List<Integer> typeOrder = new ArrayList<>();
+        for (int t = 0; t < TYPES.length; t++) {
+            if (typeCount[t] > 0) typeOrder.add(t);
+        }
+        typeOrder.sort((a, b) -> Long.compare(typeCount[b], typeCount[a]));
+        for (int t : typeOrder.subList(0, Math.min(TOP, typeOrder.size()))) {
+            report.types.add(new Entry(TYPES[t].name(), (int) typeCount[t],
+                    String.format("avg age %ds", typeAge[t] / typeCount[t] / 20)));
+        }
+
+        // Chunks (Top-N per Heap), danach dominanter Typ nur für diese wenigen Chunks
+        PriorityQueue<long[]> heap = new PriorityQueue<>(Comparator.comparingLong((long[] entry) -> entry[2]));
+        for (int w = 0; w < worlds.size(); w++) {
+            for (Map.Entry<Long, Integer> entry : chunks.get(w).entrySet()) {
+                heap.add(new long[]{w, entry.getKey(), entry.getValue()});
+                if (heap.size() > TOP) heap.poll();
+            }
+        }
+        List<long[]> topChunks = new ArrayList<>(heap);
+        topChunks.sort((a, b) -> Long.compare(b[2], a[2]));
+        for (long[] chunk : topChunks) {
+            int x = ChunkKey.x(chunk[1]);
+            int z = ChunkKey.z(chunk[1]);
+            report.chunksRanked.add(new Entry(String.format("%s %d,%d", worldNames.get((int) chunk[0]), x, z),
+                    (int) chunk[2], "mostly " + dominantType((int) chunk[0], x, z)));
+        }
+
+        // Spieler
+        List<Integer> playerOrder = new ArrayList<>();
+        for (int p = 0; p < playerCount.length; p++) {
+            if (playerCount[p] > 0) playerOrder.add(p);
+        }
+        playerOrder.sort((a, b) -> Integer.compare(playerCount[b], playerCount[a]));
+        for (int p : playerOrder.subList(0, Math.min(TOP, playerOrder.size()))) {
+            report.players.add(new Entry(playerNames.get(p), playerCount[p], "within " + VICINITY_RADIUS + " blocks"));
+        }
+
+        report.analysisNanos = analysisNanosSoFar + (System.nanoTime() - mergeStart);
+        return report;
+    }
+
+    private String dominantType(int worldIdx, int chunkX, int chunkZ) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (world[i] == worldIdx && blockX[i] >> 4 == chunkX && blockZ[i] >> 4 == chunkZ) {
+                counts.merge((int) type[i], 1, Integer::sum);
+            }
+        }
+        int best = -1;
+        int bestCount = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > bestCount) {
+                best = entry.getKey();
+                bestCount = entry.getValue();
+            }
+        }
+        return best < 0 ? "-" : TYPES[best].name();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isSnapshotDone() {
+        return worldIndex >= worlds.size();
+    }
+
+    public double getProgress() {
+        return totalChunks > 0 ? processedChunks * 100.0 / totalChunks : 100.0;
+    }
+
+    public int getSnapshotSize() {
+        return size;
+    }
+
+    /**
+     * Spieler nach 64er-Zellen pro Welt; jede Entity prüft nur die 3x3 umliegenden Zellen
+     */
+    private final class PlayerGrid {
+        private final Map<Long, List<Integer>> cells = new HashMap<>();
+
+        PlayerGrid() {
+            for (int p = 0; p < playerNames.size(); p++) {
+                if (playerWorld[p] < 0) continue;
+                cells.computeIfAbsent(cellKey(playerWorld[p], Math.floorDiv(playerX[p], VICINITY_RADIUS),
+                        Math.floorDiv(playerZ[p], VICINITY_RADIUS)), key -> new ArrayList<>()).add(p);
+            }
+        }
+
+        void countNearby(int worldIdx, int x, int z, int[] playerCount) {
+            if (cells.isEmpty()) return;
+            int cx = Math.floorDiv(x, VICINITY_RADIUS);
+            int cz = Math.floorDiv(z, VICINITY_RADIUS);
+            long radiusSquared = (long) VICINITY_RADIUS * VICINITY_RADIUS;
+
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    List<Integer> players = cells.get(cellKey(worldIdx, cx + dx, cz + dz));
+                    if (players == null) continue;
+                    for (int p : players) {
+                        long ddx = x - playerX[p];
+                        long ddz = z - playerZ[p];
+                        if (ddx * ddx + ddz * ddz <= radiusSquared) {
+                            playerCount[p]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Welt in den oberen 8 Bit, Zellkoordinaten je 28 Bit
+        private long cellKey(int worldIdx, int cx, int cz) {
+            return ((long) worldIdx << 56) | (((long) cx & 0xFFFFFFFL) << 28) | ((long) cz & 0xFFFFFFFL);
+        }
+    }
+
+    // Teilergebnis eines Async-Teilstücks
+    private static final class Partial {
+        private final int[] typeCount = new int[TYPES.length];
+        private final long[] typeAge = new long[TYPES.length];
+        private final Map<Long, Integer>[] chunkCount;
+        private final int[] playerCount;
+
+        @SuppressWarnings("unchecked")
+        Partial(int worlds, int players) {
+            chunkCount = new Map[worlds];
+            for (int w = 0; w < worlds; w++) {
+                chunkCount[w] = new HashMap<>();
+            }
+            playerCount = new int[players];
+        }
+    }
+
+    /**
+     * Ergebnis der Zählung
+     */
+    public static class Report {
+        private final int entities;
+        private final int chunks;
+        private final int snapshotTicks;
+        private final long maxTickNanos;
+        private long analysisNanos = 0;
+        private final List<Entry> types = new ArrayList<>();
+        private final List<Entry> chunksRanked = new ArrayList<>();
+        private final List<Entry> players = new ArrayList<>();
+
+        Report(int entities, int chunks, int snapshotTicks, long maxTickNanos) {
+            this.entities = entities;
+            this.chunks = chunks;
+            this.snapshotTicks = snapshotTicks;
+            this.maxTickNanos = maxTickNanos;
+        }
+
+        public int getEntities() { return entities; }
+        public int getChunks() { return chunks; }
+        public int getSnapshotTicks() { return snapshotTicks; }
+        public long getMaxTickNanos() { return maxTickNanos; }
+        public long getAnalysisNanos() { return analysisNanos; }
+        public List<Entry> getTypes() { return types; }
+        public List<Entry> getTopChunks() { return chunksRanked; }
+        public List<Entry> getPlayers() { return players; }
+    }
+
+    public static class Entry {
+        private final String label;
+        private final int count;
+        private final String detail;
+
+        Entry(String label, int count, String detail) {
+            this.label = label;
+            this.count = count;
+            this.detail = detail;
+        }
+
+        public String getLabel() { return label; }
+        public int getCount() { return count; }
+        public String getDetail() { return detail; }
+    }
+}
@@ -0,0 +1,157 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * Legt gleiche Item-Stapel und XP-Kugeln eines Chunks zusammen statt sie zu löschen.
+ * Nachbarn werden über ein räumliches Hash-Gitter (Zellgröße = Radius) gefunden,
+ * so dass pro Entity nur die 27 umliegenden Zellen geprüft werden.
+ */
+public class EntityMerger implements CleanupJob.ChunkProcessor {
+
+    public static final String ITEMS = "items merged";
+    public static final String XP = "xp merged";
+
+    private final double radius;
+    private final double radiusSquared;
+    private final int maxOrbValue;
+
+    public EntityMerger(double radius, int maxOrbValue) {
+        this.radius = Math.max(0.5, radius);
+        this.radiusSquared = this.radius * this.radius;
+        this.maxOrbValue = Math.max(1, maxOrbValue);
+    }
+
+    @Override
+    public int process(Chunk chunk, int limit, Map<String, Integer> removed) {
+        // Zelle -> bereits gesehene (überlebende) Entities dieser Zelle
+        Map<Long, List<Entity>> grid = new HashMap<>();
+        int merged = 0;
+
+        for (Entity entity : chunk.getEntities()) {
+            if (merged >= limit) break;
+            if (!entity.isValid()) continue;
+
+            if (entity instanceof Item) {
+                if (mergeItem((Item) entity, grid)) {
+                    removed.merge(ITEMS, 1, Integer::sum);
+                    merged++;
+                    continue;
+                }
+            } else if (entity instanceof ExperienceOrb) {
+                if (mergeOrb((ExperienceOrb) entity, grid)) {
+                    removed.merge(XP, 1, Integer::sum);
+                    merged++;
+                    continue;
+                }
+            } else {
+                continue;
+            }
+
+            // Nicht (vollständig) aufgegangen: als mögliches Ziel für spätere Entities merken
+            grid.computeIfAbsent(cellOf(entity.getLocation()), key -> new ArrayList<>()).add(entity);
+        }
+        return merged;
+    }
+
+    /**
+     * Stapel in Nachbarn mit Platz auffüllen
+     * @return true, wenn der Stapel vollständig aufgegangen ist und entfernt wurde
+     */
+    private boolean mergeItem(Item item, Map<Long, List<Entity>> grid) {
+        ItemStack stack = item.getItemStack();
+        int originalAmount = stack.getAmount();
+        Location loc = item.getLocation();
+
+        for (List<Entity> cell : neighbours(loc, grid)) {
+            for (Entity candidate : cell) {
+                if (!(candidate instanceof Item) || !candidate.isValid() || !isNear(loc, candidate)) continue;
+
+                Item target = (Item) candidate;
+                ItemStack targetStack = target.getItemStack();
+                int room = targetStack.getMaxStackSize() - targetStack.getAmount();
+                if (room <= 0 || !targetStack.isSimilar(stack)) continue;
+
+                int moved = Math.min(room, stack.getAmount());
+                targetStack.setAmount(targetStack.getAmount() + moved);
+                target.setItemStack(targetStack);
+                stack.setAmount(stack.getAmount() - moved);
+
+                if (stack.getAmount() <= 0) {
+                    item.remove();
+                    return true;
+                }
+            }
+        }
+
+        if (stack.getAmount() != originalAmount) {
+            item.setItemStack(stack); // Rest bleibt liegen
+        }
+        return false;
+    }
+
+    private boolean mergeOrb(ExperienceOrb orb, Map<Long, List<Entity>> grid) {
+        Location loc = orb.getLocation();
+
+        for (List<Entity> cell : neighbours(loc, grid)) {
+            for (Entity candidate : cell) {
+                if (!(candidate instanceof ExperienceOrb) || !candidate.isValid() || !isNear(loc, candidate)) continue;
+
+                ExperienceOrb target = (ExperienceOrb) candidate;
+                if (target.getExperience() + orb.getExperience() > maxOrbValue) continue;
+
+                target.setExperience(target.getExperience() + orb.getExperience());
+                orb.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<List<Entity>> neighbours(Location loc, Map<Long, List<Entity>> grid) {
+        int cx = cellCoord(loc.getX());
+        int cy = cellCoord(loc.getY());
+        int cz = cellCoord(loc.getZ());
+
+        List<List<Entity>> cells = new ArrayList<>(4);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    List<Entity> cell = grid.get(packCell(cx + dx, cy + dy, cz + dz));
+                    if (cell != null) {
+                        cells.add(cell);
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    private boolean isNear(Location loc, Entity other) {
+        Location otherLoc = other.getLocation();
+        double dx = loc.getX() - otherLoc.getX();
+        double dy = loc.getY() - otherLoc.getY();
+        double dz = loc.getZ() - otherLoc.getZ();
+        return dx * dx + dy * dy + dz * dz <= radiusSquared;
+    }
+
+    private long cellOf(Location loc) {
+        return packCell(cellCoord(loc.getX()), cellCoord(loc.getY()), cellCoord(loc.getZ()));
+    }
+
+    private int cellCoord(double value) {
+        return (int) Math.floor(value / radius);
+    }
+
+    // 21 Bit pro Achse: Zellen eines Chunks liegen dicht beieinander, ein Überlauf ist daher unschädlich
+    private static long packCell(int x, int y, int z) {
+        return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+    }
+}
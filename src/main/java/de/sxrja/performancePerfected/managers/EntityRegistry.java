@@ -0,0 +1,284 @@
+package de.sxrja.performancePerfected.managers;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.*;
+
+/**
+ * Live-Index aller Nicht-Spieler-Entities nach Kategorie und Chunk.
+ * Gepflegt über EntityAddToWorld/RemoveFromWorld, dadurch kosten Abfragen wie "alle Items in Welt W"
+ * oder "alle Fahrzeuge in Chunk C" nur so viel wie das Ergebnis groß ist - kein Scan aller Entities.
+ * Da Entities zwischen Chunks wandern, prüft ein Durchlauf pro Tick einige Einträge nach und
+ * sortiert sie um; der Chunk-Index ist für bewegte Entities also nach kurzer Zeit wieder korrekt.
+ */
+public class EntityRegistry implements Listener {
+
+    public enum Category {
+        ITEM, XP, PROJECTILE, VEHICLE, HANGING, MOB, OTHER
+    }
+
+    private static final Category[] CATEGORIES = Category.values();
+    // Nachgeprüfte Einträge pro Tick (100k Entities = ca. 10 Sekunden pro Runde)
+    private static final int RELOCATE_PER_TICK = 512;
+
+    private final Map<UUID, WorldIndex> worlds = new HashMap<>();
+    // Alle Einträge für den Umsortier-Durchlauf (Swap-Remove über Tracked.listIndex)
+    private final List<Tracked> sweepList = new ArrayList<>();
+    private int sweepCursor = 0;
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private long relocations = 0;
+
+    /**
+     * Einmalig alle bereits geladenen Entities übernehmen (Plugin-Start / Reload)
+     */
+    public void registerLoadedEntities() {
+        worlds.clear();
+        sweepList.clear();
+        sweepCursor = 0;
+        for (World world : Bukkit.getWorlds()) {
+            for (Entity entity : world.getEntities()) {
+                add(entity);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        add(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        WorldIndex index = worlds.get(event.getWorld().getUID());
+        if (index != null) {
+            remove(index, event.getEntity());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        WorldIndex index = worlds.remove(event.getWorld().getUID());
+        if (index == null) return;
+        for (Tracked tracked : new ArrayList<>(index.all.values())) {
+            removeFromSweep(tracked);
+        }
+    }
+
+    private void add(Entity entity) {
+        if (entity instanceof Player) return;
+
+        WorldIndex index = worlds.computeIfAbsent(entity.getWorld().getUID(), uid -> new WorldIndex());
+        if (index.all.containsKey(entity)) return;
+
+        entity.getLocation(scratch);
+        Tracked tracked = new Tracked(entity, categoryOf(entity),
+                ChunkKey.pack(scratch.getBlockX() >> 4, scratch.getBlockZ() >> 4));
+        index.all.put(entity, tracked);
+        index.byCategory.get(tracked.category).add(entity);
+        index.byChunk.computeIfAbsent(tracked.chunkKey, key -> new ArrayList<>(4)).add(tracked);
+
+        // Bilder/Rahmen bewegen sich nie
+        if (tracked.category != Category.HANGING) {
+            tracked.listIndex = sweepList.size();
+            sweepList.add(tracked);
+        }
+    }
+
+    private void remove(WorldIndex index, Entity entity) {
+        Tracked tracked = index.all.remove(entity);
+        if (tracked == null) return;
+
+        index.byCategory.get(tracked.category).remove(entity);
+        removeFromChunk(index, tracked);
+        removeFromSweep(tracked);
+    }
+
+    private void removeFromChunk(WorldIndex index, Tracked tracked) {
+        List<Tracked> chunk = index.byChunk.get(tracked.chunkKey);
+        if (chunk == null) return;
+        chunk.remove(tracked);
+        if (chunk.isEmpty()) {
+            index.byChunk.remove(tracked.chunkKey);
+        }
+    }
+
+    private void removeFromSweep(Tracked tracked) {
+        int i = tracked.listIndex;
+        if (i < 0) return;
+        Tracked last = sweepList.remove(sweepList.size() - 1);
+        if (last != tracked) {
+            sweepList.set(i, last);
+            last.listIndex = i;
+        }
+        tracked.listIndex = -1;
+    }
+
+    /**
+     * UMSORTIEREN: einige Einträge pro Tick auf ihren aktuellen Chunk prüfen (aus dem Tick-Task aufrufen)
+     */
+    public void tick() {
+        int checks = Math.min(RELOCATE_PER_TICK, sweepList.size());
+        for (int n = 0; n < checks; n++) {
+            if (sweepCursor >= sweepList.size()) {
+                sweepCursor = 0;
+            }
+            Tracked tracked = sweepList.get(sweepCursor++);
+            relocate(tracked);
+        }
+    }
+
+    private boolean relocate(Tracked tracked) {
+        Entity entity = tracked.entity;
+        if (!entity.isValid()) return false;
+
+        entity.getLocation(scratch);
+        long key = ChunkKey.pack(scratch.getBlockX() >> 4, scratch.getBlockZ() >> 4);
+        if (key == tracked.chunkKey) return true;
+
+        WorldIndex index = worlds.get(entity.getWorld().getUID());
+        if (index == null || !index.all.containsKey(entity)) return false;
+
+        removeFromChunk(index, tracked);
+        tracked.chunkKey = key;
+        index.byChunk.computeIfAbsent(key, k -> new ArrayList<>(4)).add(tracked);
+        relocations++;
+        return false;
+    }
+
+    /**
+     * ALLE ENTITIES EINER KATEGORIE (Kopie, darf also beim Entfernen durchlaufen werden)
+     * @param world null = alle Welten
+     */
+    public List<Entity> getEntities(World world, Category category) {
+        List<Entity> result = new ArrayList<>();
+        for (WorldIndex index : indexes(world)) {
+            result.addAll(index.byCategory.get(category));
+        }
+        return result;
+    }
+
+    public List<Entity> getEntities(World world, EnumSet<Category> categories) {
+        List<Entity> result = new ArrayList<>();
+        for (WorldIndex index : indexes(world)) {
+            for (Category category : categories) {
+                result.addAll(index.byCategory.get(category));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * z.B. "alle Items älter als X in Welt W"
+     */
+    public List<Entity> getOlderThan(World world, Category category, int minTicksLived) {
+        List<Entity> result = new ArrayList<>();
+        for (WorldIndex index : indexes(world)) {
+            for (Entity entity : index.byCategory.get(category)) {
+                if (entity.getTicksLived() >= minTicksLived) {
+                    result.add(entity);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * z.B. "alle Fahrzeuge in Chunk C" - gewanderte Einträge werden dabei gleich umsortiert
+     * @param category null = alle Kategorien
+     */
+    public List<Entity> getEntities(World world, int chunkX, int chunkZ, Category category) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) return Collections.emptyList();
+
+        List<Tracked> chunk = index.byChunk.get(ChunkKey.pack(chunkX, chunkZ));
+        if (chunk == null) return Collections.emptyList();
+
+        List<Entity> result = new ArrayList<>();
+        for (Tracked tracked : new ArrayList<>(chunk)) {
+            if (category != null && tracked.category != category) continue;
+            if (relocate(tracked)) {
+                result.add(tracked.entity);
+            }
+        }
+        return result;
+    }
+
+    public int getCount(Category category) {
+        int count = 0;
+        for (WorldIndex index : worlds.values()) {
+            count += index.byCategory.get(category).size();
+        }
+        return count;
+    }
+
+    public int getTotalCount() {
+        int count = 0;
+        for (WorldIndex index : worlds.values()) {
+            count += index.all.size();
+        }
+        return count;
+    }
+
+    public long getRelocations() {
+        return relocations;
+    }
+
+    private Collection<WorldIndex> indexes(World world) {
+        if (world == null) return worlds.values();
+        WorldIndex index = worlds.get(world.getUID());
+        return index == null ? Collections.emptyList() : Collections.singletonList(index);
+    }
+
+    public static Category categoryOf(Entity entity) {
+        if (entity instanceof Item) return Category.ITEM;
+        if (entity instanceof ExperienceOrb) return Category.XP;
+        if (entity instanceof Projectile) return Category.PROJECTILE;
+        if (entity instanceof Boat || entity instanceof Minecart) return Category.VEHICLE;
+        if (entity instanceof Hanging) return Category.HANGING;
+        if (entity instanceof Mob) return Category.MOB;
+        return Category.OTHER;
+    }
+
+    public void clear() {
+        worlds.clear();
+        sweepList.clear();
+        sweepCursor = 0;
+    }
+
+    // Index einer Welt
+    private static final class WorldIndex {
+        private final Map<Entity, Tracked> all = new HashMap<>();
+        private final EnumMap<Category, Set<Entity>> byCategory = new EnumMap<>(Category.class);
+        private final Map<Long, List<Tracked>> byChunk = new HashMap<>();
+
+        WorldIndex() {
+            for (Category category : CATEGORIES) {
+                byCategory.put(category, new LinkedHashSet<>());
+            }
+        }
+    }
+
+    // Eintrag einer Entity mit zuletzt bekanntem Chunk
+    private static final class Tracked {
+        private final Entity entity;
+        private final Category category;
+        private long chunkKey;
+        private int listIndex = -1;
+
+        Tracked(Entity entity, Category category, long chunkKey) {
+            this.entity = entity;
+            this.category = category;
+            this.chunkKey = chunkKey;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package de.sxrja.performancePerfected.managers;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.vehicle.VehicleCreateEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+
+import java.util.*;
+
+/**
+ * Ablauf-Index für Items, XP-Kugeln, Pfeile und Fahrzeuge.
+ * Entities werden beim Spawnen (bzw. Laden ihres Chunks) in Buckets nach Ablauf-Tick einsortiert,
+ * ein Cleanup fasst dadurch nur wirklich abgelaufene Entities an statt alle zu scannen.
+ * Jede UUID steht höchstens einmal gültig im Index (scheduled); Einträge in alten Buckets, die nicht
+ * mehr dazu passen, sind veraltet und werden beim Abarbeiten übersprungen. Damit die Buckets auch
+ * ohne Cleanup-Lauf nicht wachsen, räumt prune() abgelaufene Buckets regelmäßig auf.
+ */
+public class ExpiryQueue implements Listener {
+
+    // Eine Sekunde pro Bucket hält die TreeMap klein
+    private static final int BUCKET_TICKS = 20;
+
+    public static final String ITEMS = "items";
+    public static final String XP = "xp";
+    public static final String ARROWS = "arrows";
+    public static final String VEHICLES = "vehicles";
+
+    // Sammel-Bucket für abgelaufene, noch lebende Entities (liegt vor allen echten Buckets)
+    private static final int OVERDUE = 0;
+
+    // Bucket (Ablauf-Tick / BUCKET_TICKS, aufgerundet) -> Entity-UUIDs
+    private final TreeMap<Integer, List<UUID>> buckets = new TreeMap<>();
+    // Entity -> aktuell gültiger Bucket
+    private final Map<UUID, Integer> scheduled = new HashMap<>();
+    // Veraltete Einträge im OVERDUE-Bucket (für gelegentliches Kompaktieren)
+    private int staleOverdue = 0;
+
+    // Lebensdauer pro Kategorie in Ticks (0 = nicht entfernen)
+    private int itemTicks = 0;
+    private int xpTicks = 0;
+    private int arrowTicks = 0;
+    private int vehicleTicks = 0;
+
+    public void configure(int itemTicks, int xpTicks, int arrowTicks, int vehicleTicks) {
+        this.itemTicks = Math.max(0, itemTicks);
+        this.xpTicks = Math.max(0, xpTicks);
+        this.arrowTicks = Math.max(0, arrowTicks);
+        this.vehicleTicks = Math.max(0, vehicleTicks);
+    }
+
+    /**
+     * Einmalig alle bereits geladenen Entities übernehmen (Plugin-Start / Reload)
+     */
+    public void registerLoadedEntities() {
+        clear();
+        for (World world : Bukkit.getWorlds()) {
+            for (Entity entity : world.getEntities()) {
+                register(entity);
+            }
+        }
+    }
+
+    // Deckt auch ItemSpawnEvent und ProjectileLaunchEvent ab (gleiche HandlerList)
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent event) {
+        register(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onVehicleCreate(VehicleCreateEvent event) {
+        register(event.getVehicle());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        // Beim Entladen fliegen Einträge heraus (onEntityRemove), hier kommen sie zurück
+        for (Entity entity : event.getEntities()) {
+            register(entity);
+        }
+    }
+
+    // Entfernt, aufgesammelt oder entladen: Eintrag ungültig machen, die UUID im Bucket wird übersprungen
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        unschedule(event.getEntity().getUniqueId());
+    }
+
+    private void register(Entity entity) {
+        int lifetime = lifetimeOf(categoryOf(entity));
+        if (lifetime <= 0) return;
+
+        schedule(entity.getUniqueId(), Bukkit.getCurrentTick() + Math.max(1, lifetime - entity.getTicksLived()));
+    }
+
+    private void schedule(UUID id, int expiryTick) {
+        scheduleInto(id, (expiryTick + BUCKET_TICKS - 1) / BUCKET_TICKS);
+    }
+
+    private void scheduleInto(UUID id, int bucket) {
+        Integer previous = scheduled.put(id, bucket);
+        if (previous != null) {
+            if (previous == bucket) return; // Schon an dieser Stelle eingetragen
+            if (previous == OVERDUE) staleOverdue++;
+        }
+        buckets.computeIfAbsent(bucket, key -> new ArrayList<>()).add(id);
+    }
+
+    private void unschedule(UUID id) {
+        Integer previous = scheduled.remove(id);
+        if (previous != null && previous == OVERDUE) {
+            staleOverdue++;
+        }
+    }
+
+    // UUID aus Bucket genommen: nur gültig, wenn der Index noch auf genau diesen Bucket zeigt
+    private boolean take(UUID id, int bucket) {
+        Integer current = scheduled.get(id);
+        if (current == null || current != bucket) {
+            if (bucket == OVERDUE) staleOverdue--;
+            return false;
+        }
+        scheduled.remove(id);
+        return true;
+    }
+
+    /**
+     * ABGELAUFENE BUCKETS AUFRÄUMEN (periodisch, unabhängig von Cleanup-Läufen)
+     * Veraltete und verschwundene Einträge fliegen raus, noch lebende wandern in den OVERDUE-Bucket,
+     * wo sie der nächste Cleanup findet. Höchstens maxChecks Einträge pro Aufruf.
+     */
+    public void prune(int currentTick, int maxChecks) {
+        int checks = 0;
+        Map.Entry<Integer, List<UUID>> entry;
+        while ((entry = buckets.higherEntry(OVERDUE)) != null && entry.getKey() * BUCKET_TICKS <= currentTick) {
+            int bucket = entry.getKey();
+            List<UUID> ids = entry.getValue();
+            while (!ids.isEmpty()) {
+                if (checks++ >= maxChecks) return;
+
+                UUID id = ids.remove(ids.size() - 1);
+                if (!take(id, bucket)) continue;
+
+                Entity entity = Bukkit.getEntity(id);
+                if (entity != null && entity.isValid()) {
+                    scheduleInto(id, OVERDUE);
+                }
+            }
+            buckets.remove(bucket);
+        }
+
+        // OVERDUE besteht überwiegend aus veralteten Einträgen: einmal kompaktieren
+        List<UUID> overdue = buckets.get(OVERDUE);
+        if (overdue != null && staleOverdue > 64 && staleOverdue * 2 > overdue.size()) {
+            overdue.removeIf(id -> {
+                Integer current = scheduled.get(id);
+                return current == null || current != OVERDUE;
+            });
+            staleOverdue = 0;
+            if (overdue.isEmpty()) {
+                buckets.remove(OVERDUE);
+            }
+        }
+    }
+
+    public void clear() {
+        buckets.clear();
+        scheduled.clear();
+        staleOverdue = 0;
+    }
+
+    /**
+     * ABGELAUFENE ENTITIES ENTFERNEN, bis Budget oder Entfernungs-Limit erreicht sind
+     * @return true, wenn keine abgelaufenen Einträge mehr übrig sind
+     */
+    public boolean drainExpired(int currentTick, int maxRemovals, long deadline, Map<String, Integer> removed) {
+        int removedNow = 0;
+
+        while (!buckets.isEmpty()) {
+            Map.Entry<Integer, List<UUID>> first = buckets.firstEntry();
+            if (first.getKey() * BUCKET_TICKS > currentTick) {
+                return true;
+            }
+
+            int bucket = first.getKey();
+            List<UUID> ids = first.getValue();
+            while (!ids.isEmpty()) {
+                UUID id = ids.remove(ids.size() - 1);
+                if (!take(id, bucket)) continue; // Veraltet (neu einsortiert oder entfernt)
+
+                Entity entity = Bukkit.getEntity(id);
+                if (entity == null || !entity.isValid()) continue; // Aufgesammelt, entfernt oder entladen
+
+                String category = categoryOf(entity);
+                int lifetime = lifetimeOf(category);
+                if (lifetime <= 0) continue;
+
+                if (entity.getTicksLived() < lifetime) {
+                    // Alter wurde zurückgesetzt (z.B. Item-Merge) - landet garantiert in einem späteren Bucket
+                    schedule(id, currentTick + lifetime - entity.getTicksLived());
+                    continue;
+                }
+                if (VEHICLES.equals(category) && !entity.getPassengers().isEmpty()) {
+                    schedule(id, currentTick + lifetime); // Besetzt: später erneut prüfen
+                    continue;
+                }
+
+                entity.remove();
+                removed.merge(category, 1, Integer::sum);
+                if (++removedNow >= maxRemovals || System.nanoTime() >= deadline) {
+                    return false;
+                }
+            }
+            buckets.pollFirstEntry();
+        }
+        return true;
+    }
+
+    private String categoryOf(Entity entity) {
+        if (entity instanceof Item) return ITEMS;
+        if (entity instanceof ExperienceOrb) return XP;
+        // Dreizacke sind Spieler-Ausrüstung, keine liegengebliebenen Pfeile
+        if (entity instanceof AbstractArrow && !(entity instanceof Trident)) return ARROWS;
+        if (entity instanceof Boat || entity instanceof Minecart) return VEHICLES;
+        return null;
+    }
+
+    private int lifetimeOf(String category) {
+        if (category == null) return 0;
+        switch (category) {
+            case ITEMS: return itemTicks;
+            case XP: return xpTicks;
+            case ARROWS: return arrowTicks;
+            case VEHICLES: return vehicleTicks;
+            default: return 0;
+        }
+    }
+
+    public int getRegisteredCount() {
+        return scheduled.size();
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+}
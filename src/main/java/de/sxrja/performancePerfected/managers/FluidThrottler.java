@@ -0,0 +1,161 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockFromToEvent;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Flüssigkeits-Drosselung (world-settings.default.tick-rates.fluid).
+ * In Lazy Chunks und bei zu hoher MSPT bekommt jeder Chunk einen Token-Bucket:
+ * pro Tick kommen fluid/multiplier Flüsse dazu, alles darüber wird verschoben.
+ * Gedrosselte Quellen werden später erneut angestoßen, damit Kaskaden nicht einfrieren.
+ */
+public class FluidThrottler implements Listener {
+
+    private static final int MIN_MULTIPLIER = 4;
+    private static final int MAX_PENDING = 4096;
+    private static final int RETRIES_PER_TICK = 32;
+
+    private final LazyChunkManager lazyChunkManager;
+    private final ConfigManager configManager;
+
+    // Gedrosselte Quell-Blöcke, die später neu angestoßen werden
+    private final ArrayDeque<PendingFlow> pending = new ArrayDeque<>();
+    private final Set<PendingFlow> pendingSet = new HashSet<>();
+
+    private boolean overloaded = false;
+    private long throttledFlows = 0;
+
+    public FluidThrottler(LazyChunkManager lazyChunkManager, ConfigManager configManager) {
+        this.lazyChunkManager = lazyChunkManager;
+        this.configManager = configManager;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        Block source = event.getBlock();
+        World world = source.getWorld();
+        ChunkStateTable table = lazyChunkManager.findChunkTable(world);
+        if (table == null) return;
+
+        int slot = table.indexOf(ChunkKey.pack(source.getX() >> 4, source.getZ() >> 4));
+        if (slot < 0) return;
+
+        int multiplier = table.multiplierAt(slot);
+        if (multiplier < MIN_MULTIPLIER && !overloaded) {
+            return; // Aktiver Chunk bei gesunder MSPT: Vanilla
+        }
+
+        double rate = configManager.getFluidTickRate();
+        if (!table.tryConsumeFluidToken(slot, Bukkit.getCurrentTick(), refillRate(rate, multiplier), rate)) {
+            event.setCancelled(true);
+            throttledFlows++;
+            remember(world, source);
+        }
+    }
+
+    /**
+     * Last-Status aktualisieren (ca. 1x pro Sekunde)
+     */
+    public void updateLoad(double mspt) {
+        overloaded = mspt > configManager.getFluidMsptThreshold();
+    }
+
+    // Zufluss pro Tick; Multiplier gedeckelt, damit auch die langsamste Stufe noch nachfüllt
+    private static double refillRate(double rate, int multiplier) {
+        return rate / Math.max(1, Math.min(ChunkStateTable.MAX_MULTIPLIER, multiplier));
+    }
+
+    /**
+     * Einige gedrosselte Quellen neu anstoßen (Block#fluidTick lässt die Quelle direkt weiterfließen)
+     * Nur wenn der Chunk inzwischen aktiv ist oder sein Bucket einen Token hat - sonst würde der
+     * Retry sofort wieder gedrosselt. Solche Quellen wandern ans Ende der Warteschlange.
+     */
+    public void processRetries() {
+        int currentTick = Bukkit.getCurrentTick();
+        double rate = configManager.getFluidTickRate();
+
+        for (int i = 0; i < RETRIES_PER_TICK && !pending.isEmpty(); i++) {
+            PendingFlow flow = pending.poll();
+
+            World world = Bukkit.getWorld(flow.world);
+            ChunkStateTable table = world == null ? null : lazyChunkManager.findChunkTable(world);
+            int slot = table == null ? -1 : table.indexOf(ChunkKey.pack(flow.x >> 4, flow.z >> 4));
+            if (slot < 0) {
+                pendingSet.remove(flow); // Welt oder Chunk entladen
+                continue;
+            }
+
+            int multiplier = table.multiplierAt(slot);
+            boolean promoted = multiplier < MIN_MULTIPLIER && !overloaded;
+            if (!promoted && !table.hasFluidToken(slot, currentTick, refillRate(rate, multiplier), rate)) {
+                pending.add(flow);
+                continue;
+            }
+            pendingSet.remove(flow);
+
+            Block block = world.getBlockAt(flow.x, flow.y, flow.z);
+            if (block.isLiquid()) {
+                block.fluidTick(); // Ein identischer State-Update plant keinen Fluid-Tick ein
+            }
+        }
+    }
+
+    private void remember(World world, Block source) {
+        if (pending.size() >= MAX_PENDING) return;
+
+        PendingFlow flow = new PendingFlow(world.getUID(), source.getX(), source.getY(), source.getZ());
+        if (pendingSet.add(flow)) {
+            pending.add(flow);
+        }
+    }
+
+    public void clear() {
+        pending.clear();
+        pendingSet.clear();
+    }
+
+    public long getThrottledFlows() {
+        return throttledFlows;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    // Hilfsklassen
+    private static class PendingFlow {
+        private final UUID world;
+        private final int x, y, z;
+
+        public PendingFlow(UUID world, int x, int y, int z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PendingFlow)) return false;
+            PendingFlow that = (PendingFlow) o;
+            return x == that.x && y == that.y && z == that.z && world.equals(that.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * world.hashCode() + x) + y) + z;
+        }
+    }
+}
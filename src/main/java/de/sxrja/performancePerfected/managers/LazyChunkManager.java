@@ -1,38 +1,119 @@
 package de.sxrja.performancePerfected.managers;
 
+import de.sxrja.performancePerfected.utils.ChunkKey;
 import org.bukkit.*;
 import org.bukkit.entity.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+import org.bukkit.event.world.*;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.plugin.java.JavaPlugin;
 import java.util.*;
 
-public class LazyChunkManager {
+public class LazyChunkManager implements Listener {
 
     private JavaPlugin plugin;
     private ConfigManager configManager;
-    private Map<ChunkPosition, ChunkTickData> chunkTickMap;
+    // Tick-Zustand pro Welt (primitive Tabelle statt HashMap<ChunkPosition, ChunkTickData>)
+    private final Map<UUID, ChunkStateTable> chunkTables = new HashMap<>();
+
+    // Distanzfelder pro Welt + letzter bekannter Chunk pro Spieler
+    private final Map<UUID, ChunkDistanceField> distanceFields = new HashMap<>();
+    private final Map<UUID, PlayerChunk> playerChunks = new HashMap<>();
+
+    // Zentrale Verwaltung aller pausierten Entities (statt runTaskLater pro Entity)
+    private final AiSuspensionWheel suspensionWheel;
+    private final RedstoneThrottler redstoneThrottler;
+    private final CropThrottler cropThrottler;
+    private final FluidThrottler fluidThrottler;
+    private final ChunkActivityTracker activityTracker;
+    private final TickSampler tickSampler;
+
+    // Geregelter aktiver Radius (adaptive Lazyness)
+    private final AdaptiveDistanceController distanceController;
+    private double lastMspt = 0;
+    private boolean heatmapEnabled = false;
+    private int emergencyDistanceCap = 0;
     private BukkitRunnable monitoringTask;
     private boolean isActive = false;
 
+    // Round-Robin-Cursor für die Tick-Verarbeitung
+    private final List<UUID> sweepWorlds = new ArrayList<>();
+    private int cursorWorld = 0;
+    private int cursorSlot = 0;
+    private int sweepVisited = 0;
+    private int sweepStartTick = 0;
+    private int lastSweepTicks = 0;
+    private long lastTickNanos = 0;
+
+    // Vorausschau: Spieler-Geschwindigkeit wird alle PREDICT_INTERVAL Ticks abgetastet
+    private static final int PREDICT_INTERVAL = 5;
+    private static final double PREDICT_MIN_SPEED = 0.4;    // Blöcke pro Tick (Sprinten ~0.28)
+    private static final long NO_PREDICTION = Long.MIN_VALUE;
+    private static final int PROMOTION_HOLD_TICKS = 200;    // Mindestens ein Refresh-Zyklus aktiv
+    private long predictivePromotions = 0;
+
     // Statistik-Zähler
     private int totalChunksProcessed = 0;
     private int lazyChunksCount = 0;
     private double averageTickMultiplier = 1.0;
 
-    public LazyChunkManager(JavaPlugin plugin, ConfigManager configManager) {
+    public LazyChunkManager(JavaPlugin plugin, ConfigManager configManager, TickSampler tickSampler) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.chunkTickMap = new HashMap<>();
+        this.tickSampler = tickSampler;
+        this.suspensionWheel = new AiSuspensionWheel(plugin);
+        this.redstoneThrottler = new RedstoneThrottler(this);
+        this.cropThrottler = new CropThrottler(this);
+        this.fluidThrottler = new FluidThrottler(this, configManager);
+        this.activityTracker = new ChunkActivityTracker(plugin);
+        this.distanceController = new AdaptiveDistanceController(configManager.getLazyChunksDistance());
+
+        // Immer aktiv: Entities, die nach Crash/Reload noch markiert sind, bekommen ihre AI zurück
+        plugin.getServer().getPluginManager().registerEvents(suspensionWheel, plugin);
+        suspensionWheel.recoverLoadedEntities();
     }
 
     public void start() {
+        if (isActive) {
+            stop(); // Reload: Listener und Task nicht doppelt registrieren (auch wenn jetzt deaktiviert)
+        }
+
         if (!configManager.isLazyChunksEnabled()) {
             plugin.getLogger().info("Lazy Chunks: Feature is disabled");
             return;
         }
 
         isActive = true;
-        chunkTickMap.clear();
+        heatmapEnabled = configManager.isLazyHeatmapEnabled();
+        chunkTables.clear();
+        activityTracker.clear();
+        distanceController.reset(configManager.getLazyChunksDistance());
+        rebuildDistanceFields();
+
+        // Einmalig bereits geladene Chunks übernehmen, danach nur noch über Chunk-Events
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                trackChunk(world, chunk.getX(), chunk.getZ());
+            }
+        }
+        updateChunkDistances();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        if (configManager.isLazySkipRedstone()) {
+            plugin.getServer().getPluginManager().registerEvents(redstoneThrottler, plugin);
+        }
+        if (configManager.isLazySkipCrops()) {
+            plugin.getServer().getPluginManager().registerEvents(cropThrottler, plugin);
+        }
+        if (configManager.isLazySkipFluids()) {
+            plugin.getServer().getPluginManager().registerEvents(fluidThrottler, plugin);
+        }
+        if (configManager.isLazyHeatmapEnabled()) {
+            plugin.getServer().getPluginManager().registerEvents(activityTracker, plugin);
+        }
 
         monitoringTask = new BukkitRunnable() {
             private int tickCounter = 0;
@@ -40,6 +121,13 @@ public class LazyChunkManager {
             @Override
             public void run() {
                 tickCounter++;
+                suspensionWheel.tick();
+                redstoneThrottler.tick();
+
+                // Chunks vor schnellen Spielern vorab aktivieren
+                if (tickCounter % PREDICT_INTERVAL == 0) {
+                    updatePredictions();
+                }
 
                 // Alle 10 Sekunden (200 Ticks) Chunks aktualisieren
                 if (tickCounter % 200 == 0) {
@@ -52,8 +140,19 @@ public class LazyChunkManager {
                 // Tick-Verarbeitung für alle geladenen Chunks
                 processChunkTicks();
 
-                // Adaptive Logik alle 5 Sekunden
-                if (tickCounter % 100 == 0 && configManager.isAdaptiveLaziness()) {
+                // Aufgeschobenes Pflanzenwachstum aktiver Chunks nachholen
+                cropThrottler.processCatchUp();
+
+                // Gedrosselte Flüssigkeiten nach und nach wieder anstoßen
+                fluidThrottler.processRetries();
+
+                // Last-Status für die Fluid-Drosselung jede Sekunde
+                if (tickCounter % 20 == 0) {
+                    fluidThrottler.updateLoad(tickSampler.getMspt(configManager.getLazyMsptMetric()));
+                }
+
+                // Adaptive Regelung jede Sekunde
+                if (tickCounter % 20 == 0 && configManager.isAdaptiveLaziness()) {
                     adjustAdaptiveDistance();
                 }
             }
@@ -68,23 +167,33 @@ public class LazyChunkManager {
         totalChunksProcessed = 0;
         double totalMultiplier = 0;
 
-        int baseDistance = configManager.getLazyChunksDistance();
+        int baseDistance = getEffectiveDistance();
+        int currentTick = Bukkit.getCurrentTick();
+
+        // Verpasste Chunk-Wechsel nachziehen (O(Spieler), kein Chunk-Scan)
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            updatePlayerChunk(player, player.getLocation());
+        }
 
         for (World world : Bukkit.getWorlds()) {
-            for (Chunk chunk : world.getLoadedChunks()) {
-                ChunkPosition pos = new ChunkPosition(chunk);
-                int distance = calculateDistanceToNearestPlayer(chunk);
+            ChunkDistanceField field = getDistanceField(world);
+            ChunkStateTable table = getChunkTable(world);
+
+            for (int slot = 0; slot < table.capacity(); slot++) {
+                if (!table.isOccupied(slot)) continue;
+
+                long key = table.keyAt(slot);
+                int distance = field.getDistance(ChunkKey.x(key), ChunkKey.z(key));
 
                 // Tick-Multiplier berechnen
                 int tickMultiplier = calculateTickMultiplier(distance, baseDistance);
-                ChunkTickData data = chunkTickMap.get(pos);
-
-                if (data == null) {
-                    data = new ChunkTickData(chunk, tickMultiplier);
-                    chunkTickMap.put(pos, data);
-                } else {
-                    data.setTickMultiplier(tickMultiplier);
+                if (tickMultiplier > table.multiplierAt(slot) && !table.canDemote(slot, currentTick)) {
+                    tickMultiplier = table.multiplierAt(slot); // Vorab aktiviert: Herabstufung später
                 }
+                if (tickMultiplier == 1 && table.multiplierAt(slot) > 1) {
+                    cropThrottler.onChunkActivated(world, key);
+                }
+                table.setMultiplier(slot, tickMultiplier);
 
                 if (tickMultiplier > 1) {
                     lazyChunksCount++;
@@ -111,11 +220,131 @@ public class LazyChunkManager {
         return averageTickMultiplier;
     }
 
+    public long getTickBudgetNanos() {
+        return configManager.getLazyChunksTickBudgetNanos();
+    }
+
+    public int getSuspendedEntities() {
+        return suspensionWheel.getSuspendedCount();
+    }
+
+    public long getThrottledRedstoneUpdates() {
+        return redstoneThrottler.getThrottledUpdates();
+    }
+
+    public long getDeferredGrowthEvents() {
+        return cropThrottler.getDeferredEvents();
+    }
+
+    public long getCaughtUpGrowth() {
+        return cropThrottler.getCaughtUpGrowth();
+    }
+
+    public long getThrottledFluidFlows() {
+        return fluidThrottler.getThrottledFlows();
+    }
+
+    public boolean isFluidOverloaded() {
+        return fluidThrottler.isOverloaded();
+    }
+
+    /**
+     * CHUNKS MIT DEN MEISTEN GEDROSSELTEN FLÜSSEN (Top-N per Min-Heap)
+     */
+    public List<FluidChunkStats> getTopFluidChunks(int limit) {
+        PriorityQueue<FluidChunkStats> heap = new PriorityQueue<>(
+                Comparator.comparingLong(FluidChunkStats::getTotal));
+
+        for (Map.Entry<UUID, ChunkStateTable> entry : chunkTables.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) continue;
+
+            ChunkStateTable table = entry.getValue();
+            for (int slot = 0; slot < table.capacity(); slot++) {
+                if (!table.isOccupied(slot)) continue;
+
+                int allowed = table.fluidAllowedAt(slot);
+                int throttled = table.fluidThrottledAt(slot);
+                if (allowed + throttled == 0) continue;
+
+                long key = table.keyAt(slot);
+                heap.add(new FluidChunkStats(world.getName(), ChunkKey.x(key), ChunkKey.z(key),
+                        allowed, throttled, table.multiplierAt(slot)));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<FluidChunkStats> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingLong(FluidChunkStats::getTotal).reversed());
+        return result;
+    }
+
+    public ChunkActivityTracker getActivityTracker() {
+        return activityTracker;
+    }
+
+    public boolean isHeatmapEnabled() {
+        return isActive && heatmapEnabled;
+    }
+
+    public long getPredictivePromotions() {
+        return predictivePromotions;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public int getLastSweepTicks() {
+        return lastSweepTicks;
+    }
+
+    // Chunks, die im laufenden Durchlauf noch nicht besucht wurden
+    public int getBacklog() {
+        int loaded = 0;
+        for (ChunkStateTable table : chunkTables.values()) {
+            loaded += table.size();
+        }
+        return Math.max(0, loaded - sweepVisited);
+    }
+
     // Getter für Konfigurationswerte
     public int getCurrentDistance() {
+        return getEffectiveDistance();
+    }
+
+    public int getConfiguredDistance() {
         return configManager.getLazyChunksDistance();
     }
 
+    private int getEffectiveDistance() {
+        int distance = configManager.isAdaptiveLaziness()
+                ? distanceController.getEffectiveDistance()
+                : configManager.getLazyChunksDistance();
+        return emergencyDistanceCap > 0 ? Math.min(distance, emergencyDistanceCap) : distance;
+    }
+
+    /**
+     * NOTFALL: aktiven Radius deckeln (0 = aufheben), Multiplier sofort neu berechnen
+     */
+    public void setEmergencyDistanceCap(int cap) {
+        if (cap == emergencyDistanceCap) return;
+        emergencyDistanceCap = cap;
+        if (isActive) {
+            updateChunkDistances();
+        }
+    }
+
+    public double getCurrentMspt() {
+        return lastMspt > 0 ? lastMspt : tickSampler.getMspt(configManager.getLazyMsptMetric());
+    }
+
+    public double getTargetMspt() {
+        return configManager.getAdaptiveTargetMspt();
+    }
+
     public int getMinDistance() {
         return configManager.getLazyChunksMinDistance();
     }
@@ -137,66 +366,369 @@ public class LazyChunkManager {
         stats.put("lazyChunks", lazyChunksCount);
         stats.put("averageMultiplier", averageTickMultiplier);
         stats.put("currentDistance", getCurrentDistance());
+        stats.put("configuredDistance", getConfiguredDistance());
+        stats.put("currentMspt", getCurrentMspt());
         stats.put("adaptiveEnabled", isAdaptiveEnabled());
         stats.put("currentTPS", getCurrentTPS());
+        stats.put("tickBudgetNanos", getTickBudgetNanos());
+        stats.put("lastTickNanos", lastTickNanos);
+        stats.put("backlog", getBacklog());
+        stats.put("sweepTicks", lastSweepTicks);
+        stats.put("suspendedEntities", getSuspendedEntities());
+        stats.put("throttledRedstone", getThrottledRedstoneUpdates());
+        stats.put("deferredGrowth", getDeferredGrowthEvents());
+        stats.put("caughtUpGrowth", getCaughtUpGrowth());
+        stats.put("throttledFluids", getThrottledFluidFlows());
+        stats.put("predictivePromotions", predictivePromotions);
         return stats;
     }
 
-    private int calculateDistanceToNearestPlayer(Chunk chunk) {
-        int minDistance = Integer.MAX_VALUE;
-        Chunk chunkPos = chunk;
+    /**
+     * DISTANZFELDER ALLER WELTEN PER MULTI-SOURCE-BFS AUFBAUEN
+     */
+    private void rebuildDistanceFields() {
+        distanceFields.clear();
+        playerChunks.clear();
+
+        for (World world : Bukkit.getWorlds()) {
+            List<Long> sources = new ArrayList<>();
+            for (Player player : world.getPlayers()) {
+                Location loc = player.getLocation();
+                long key = ChunkKey.pack(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+                sources.add(key);
+                playerChunks.put(player.getUniqueId(), new PlayerChunk(world.getUID(), key));
+            }
+            getDistanceField(world).rebuild(sources);
+        }
+    }
+
+    // Tabelle einer Welt ohne sie anzulegen (für Event-Listener)
+    public ChunkStateTable findChunkTable(World world) {
+        return chunkTables.get(world.getUID());
+    }
+
+    /**
+     * Aktueller Tick-Multiplier eines Chunks (1 = normal, auch für unbekannte Chunks)
+     */
+    public int getChunkMultiplier(World world, int chunkX, int chunkZ) {
+        ChunkStateTable table = chunkTables.get(world.getUID());
+        if (table == null) return 1;
+
+        int slot = table.indexOf(ChunkKey.pack(chunkX, chunkZ));
+        return slot < 0 ? 1 : table.multiplierAt(slot);
+    }
+
+    private ChunkStateTable getChunkTable(World world) {
+        return chunkTables.computeIfAbsent(world.getUID(), uid -> new ChunkStateTable());
+    }
+
+    private void trackChunk(World world, int x, int z) {
+        int distance = getDistanceField(world).getDistance(x, z);
+        getChunkTable(world).put(ChunkKey.pack(x, z),
+                calculateTickMultiplier(distance, getEffectiveDistance()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        trackChunk(event.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        ChunkStateTable table = chunkTables.get(event.getWorld().getUID());
+        if (table != null) {
+            Chunk chunk = event.getChunk();
+            table.remove(ChunkKey.pack(chunk.getX(), chunk.getZ()));
+        }
+        cropThrottler.onChunkUnload(event.getWorld(), ChunkKey.pack(event.getChunk().getX(), event.getChunk().getZ()));
+        redstoneThrottler.onChunkUnload(event.getWorld(), ChunkKey.pack(event.getChunk().getX(), event.getChunk().getZ()));
+        activityTracker.onChunkUnload(event.getWorld(), ChunkKey.pack(event.getChunk().getX(), event.getChunk().getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        chunkTables.remove(event.getWorld().getUID());
+        distanceFields.remove(event.getWorld().getUID());
+        activityTracker.onWorldUnload(event.getWorld());
+    }
+
+    private ChunkDistanceField getDistanceField(World world) {
+        return distanceFields.computeIfAbsent(world.getUID(),
+                uid -> new ChunkDistanceField(Math.min(32, world.getViewDistance() + 2)));
+    }
+
+    /**
+     * SPIELER-CHUNK AKTUALISIEREN: Distanzfeld nur bei Chunk- oder Weltwechsel anpassen
+     */
+    private void updatePlayerChunk(Player player, Location to) {
+        if (to == null || to.getWorld() == null) return;
+
+        World world = to.getWorld();
+        int chunkX = to.getBlockX() >> 4;
+        int chunkZ = to.getBlockZ() >> 4;
+        long key = ChunkKey.pack(chunkX, chunkZ);
+
+        PlayerChunk current = playerChunks.get(player.getUniqueId());
+        if (current != null) {
+            if (current.key == key && current.world.equals(world.getUID())) {
+                return;
+            }
+            if (!current.world.equals(world.getUID())) {
+                removePrediction(current); // Weltwechsel: Vorhersage gilt nicht mehr
+            }
+            removePlayerSource(current);
+            current.world = world.getUID();
+            current.key = key;
+        } else {
+            playerChunks.put(player.getUniqueId(), new PlayerChunk(world.getUID(), key));
+        }
+
+        getDistanceField(world).addSource(chunkX, chunkZ);
+        promoteAround(world, chunkX, chunkZ);
+    }
+
+    private void removePlayerSource(PlayerChunk playerChunk) {
+        ChunkDistanceField field = distanceFields.get(playerChunk.world);
+        if (field != null) {
+            field.removeSource(ChunkKey.x(playerChunk.key), ChunkKey.z(playerChunk.key));
+        }
+    }
+
+    /**
+     * BEWEGUNGS-VORHERSAGE: pro Spieler eine zusätzliche Quelle an der erwarteten Position
+     * in lookahead Ticks. Chunks davor werden sofort aktiviert, Chunks dahinter fallen erst
+     * mit dem nächsten regulären Refresh (und nach Ablauf der Haltezeit) zurück.
+     */
+    private void updatePredictions() {
+        int lookahead = configManager.getLazyPredictiveLookaheadTicks();
 
         for (Player player : Bukkit.getOnlinePlayers()) {
-            Location playerLoc = player.getLocation();
-            Chunk playerChunk = playerLoc.getChunk();
+            PlayerChunk playerChunk = playerChunks.get(player.getUniqueId());
+            if (playerChunk == null) continue;
+
+            Location loc = player.getLocation();
+            World world = loc.getWorld();
+            if (world == null || !world.getUID().equals(playerChunk.world)) continue;
+
+            double x = loc.getX();
+            double z = loc.getZ();
+            if (!playerChunk.sampled || lookahead <= 0) {
+                playerChunk.sample(x, z);
+                removePrediction(playerChunk);
+                continue;
+            }
+
+            double vx = (x - playerChunk.lastX) / PREDICT_INTERVAL;
+            double vz = (z - playerChunk.lastZ) / PREDICT_INTERVAL;
+            playerChunk.sample(x, z);
+
+            if (vx * vx + vz * vz < PREDICT_MIN_SPEED * PREDICT_MIN_SPEED) {
+                removePrediction(playerChunk); // Langsam: keine Vorausschau nötig
+                continue;
+            }
+
+            // Höchstens 2x Radius voraus, damit zwischen Spieler und Vorhersage keine Lücke entsteht
+            double maxBlocks = Math.max(1, getEffectiveDistance()) * 2 * 16.0;
+            double scale = Math.min(1.0, maxBlocks / (Math.sqrt(vx * vx + vz * vz) * lookahead));
+            int predictedX = (int) Math.floor(x + vx * lookahead * scale) >> 4;
+            int predictedZ = (int) Math.floor(z + vz * lookahead * scale) >> 4;
+            long predictedKey = ChunkKey.pack(predictedX, predictedZ);
 
-            if (playerChunk.getWorld().equals(chunkPos.getWorld())) {
-                int dx = Math.abs(playerChunk.getX() - chunkPos.getX());
-                int dz = Math.abs(playerChunk.getZ() - chunkPos.getZ());
-                int distance = Math.max(dx, dz); // Chebyshev-Distanz
+            if (predictedKey == playerChunk.predictedKey) continue;
 
-                if (distance < minDistance) {
-                    minDistance = distance;
+            removePrediction(playerChunk);
+            playerChunk.predictedKey = predictedKey;
+            getDistanceField(world).addSource(predictedX, predictedZ);
+            predictivePromotions += promoteAround(world, predictedX, predictedZ);
+        }
+    }
+
+    private void removePrediction(PlayerChunk playerChunk) {
+        if (playerChunk.predictedKey == NO_PREDICTION) return;
+
+        ChunkDistanceField field = distanceFields.get(playerChunk.world);
+        if (field != null) {
+            field.removeSource(ChunkKey.x(playerChunk.predictedKey), ChunkKey.z(playerChunk.predictedKey));
+        }
+        playerChunk.predictedKey = NO_PREDICTION;
+    }
+
+    /**
+     * SOFORTIGE AKTIVIERUNG um eine neue Quelle: nur Multiplier senken, nie anheben.
+     * Das Fenster reicht so weit, wie sich der Multiplier durch die Quelle spürbar ändern kann.
+     * @return Anzahl der aktivierten Chunks
+     */
+    private int promoteAround(World world, int centerX, int centerZ) {
+        ChunkStateTable table = chunkTables.get(world.getUID());
+        if (table == null) return 0;
+
+        ChunkDistanceField field = getDistanceField(world);
+        int baseDistance = getEffectiveDistance();
+        int window = baseDistance + 3;
+        int holdUntil = Bukkit.getCurrentTick() + PROMOTION_HOLD_TICKS;
+        int promoted = 0;
+
+        for (int dx = -window; dx <= window; dx++) {
+            for (int dz = -window; dz <= window; dz++) {
+                int x = centerX + dx;
+                int z = centerZ + dz;
+                int slot = table.indexOf(ChunkKey.pack(x, z));
+                if (slot < 0) continue;
+
+                int before = table.multiplierAt(slot);
+                int multiplier = calculateTickMultiplier(field.getDistance(x, z), baseDistance);
+                if (table.promote(slot, multiplier, holdUntil)) {
+                    promoted++;
+                    if (multiplier < 8 && before >= 8 && world.isChunkLoaded(x, z)) {
+                        suspensionWheel.resumeChunk(world.getChunkAt(x, z));
+                    }
+                    if (multiplier == 1 && before > 1) {
+                        cropThrottler.onChunkActivated(world, ChunkKey.pack(x, z));
+                    }
                 }
             }
         }
+        return promoted;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Schneller Ausstieg: gleicher Chunk, gleiche Welt
+        if ((from.getBlockX() >> 4) == (to.getBlockX() >> 4)
+                && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)
+                && from.getWorld() == to.getWorld()) {
+            return;
+        }
+        updatePlayerChunk(event.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        PlayerChunk playerChunk = playerChunks.get(event.getPlayer().getUniqueId());
+        if (playerChunk != null) {
+            // Sprung ist keine Geschwindigkeit: Vorhersage verwerfen und neu abtasten
+            removePrediction(playerChunk);
+            playerChunk.sampled = false;
+        }
+        updatePlayerChunk(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        updatePlayerChunk(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        updatePlayerChunk(event.getPlayer(), event.getPlayer().getLocation());
+    }
 
-        return minDistance == Integer.MAX_VALUE ? 100 : minDistance; // Fallback
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        PlayerChunk playerChunk = playerChunks.remove(event.getPlayer().getUniqueId());
+        if (playerChunk != null) {
+            removePlayerSource(playerChunk);
+            removePrediction(playerChunk);
+        }
     }
 
     private int calculateTickMultiplier(int distance, int baseDistance) {
         if (distance <= baseDistance) {
             return 1; // Normaler Tick
         }
+        // Außerhalb des Distanzfelds (Spawn-Chunks, per Ticket geladene Farmen): langsamste Stufe
+        if (distance >= ChunkDistanceField.FAR) {
+            return ChunkStateTable.MAX_MULTIPLIER;
+        }
 
-        // Exponentielle Verlangsamung: jede Stufe verdoppelt
-        int steps = distance - baseDistance;
-        return (int) Math.pow(2, steps + 1); // 4, 8, 16, 32, ...
+        // Exponentielle Verlangsamung: jede Stufe verdoppelt, gedeckelt bei MAX_MULTIPLIER
+        int steps = Math.min(distance - baseDistance + 1, 30);
+        return Math.min(ChunkStateTable.MAX_MULTIPLIER, 1 << steps); // 4, 8, 16, 32, 64
     }
 
+    /**
+     * LAZY-CHUNK-TICKS MIT ZEITBUDGET (Round-Robin)
+     * Arbeitet ab dem Cursor so viele Chunks ab, wie das Budget erlaubt, und macht
+     * im nächsten Tick an derselben Stelle weiter.
+     */
     private void processChunkTicks() {
-        for (ChunkTickData data : chunkTickMap.values()) {
-            if (data.shouldSkipTick()) {
-                skipChunkTick(data);
-            } else {
-                data.resetTickCounter();
+        long start = System.nanoTime();
+        long deadline = start + configManager.getLazyChunksTickBudgetNanos();
+        int currentTick = Bukkit.getCurrentTick();
+        int scanned = 0;
+
+        if (sweepWorlds.isEmpty()) {
+            startSweep(currentTick);
+        }
+
+        while (cursorWorld < sweepWorlds.size()) {
+            UUID worldId = sweepWorlds.get(cursorWorld);
+            ChunkStateTable table = chunkTables.get(worldId);
+            World world = Bukkit.getWorld(worldId);
+
+            if (table == null || world == null || cursorSlot >= table.capacity()) {
+                cursorWorld++;
+                cursorSlot = 0;
+                continue;
+            }
+
+            int slot = cursorSlot++;
+            if (table.isOccupied(slot)) {
+                sweepVisited++;
+                processChunk(world, table, slot, currentTick);
+            }
+
+            // nanoTime() nur alle 64 Slots abfragen
+            if ((++scanned & 63) == 0 && System.nanoTime() >= deadline) {
+                lastTickNanos = System.nanoTime() - start;
+                return;
             }
         }
+
+        // Durchlauf abgeschlossen - im nächsten Tick von vorne beginnen
+        lastSweepTicks = currentTick - sweepStartTick + 1;
+        startSweep(currentTick + 1);
+        lastTickNanos = System.nanoTime() - start;
     }
 
-    private void skipChunkTick(ChunkTickData data) {
-        Chunk chunk = data.getChunk();
+    private void startSweep(int tick) {
+        sweepWorlds.clear();
+        sweepWorlds.addAll(chunkTables.keySet());
+        cursorWorld = 0;
+        cursorSlot = 0;
+        sweepVisited = 0;
+        sweepStartTick = tick;
+    }
 
-        // Entities langsamer ticken
-        for (Entity entity : chunk.getEntities()) {
-            if (!(entity instanceof Player)) {
-                skipEntityTick(entity, data.getTickMultiplier());
-            }
+    private void processChunk(World world, ChunkStateTable table, int slot, int currentTick) {
+        int multiplier = table.multiplierAt(slot);
+        if (heatmapEnabled) {
+            activityTracker.sample(world, table.keyAt(slot), multiplier, currentTick);
+        }
+        if (multiplier <= 1 || !table.shouldSkipTick(slot, currentTick)) {
+            return; // Aktiver Chunk oder normaler Tick
         }
 
-        // Redstone-Verlangsamung
-        if (data.getTickMultiplier() >= 4) {
-            slowRedstone(chunk, data.getTickMultiplier());
+        long key = table.keyAt(slot);
+        // Nur wirklich geladene Chunks anfassen - getChunkAt() darf nichts nachladen
+        if (world.isChunkLoaded(ChunkKey.x(key), ChunkKey.z(key))) {
+            skipChunkTick(world.getChunkAt(ChunkKey.x(key), ChunkKey.z(key)), multiplier);
+        }
+    }
+
+    private void skipChunkTick(Chunk chunk, int multiplier) {
+        // Redstone wird ereignisbasiert im RedstoneThrottler gedrosselt
+
+        // Entities langsamer ticken (getEntities() nur, wenn skipEntityTick auch etwas tut)
+        if (multiplier >= 8) {
+            for (Entity entity : chunk.getEntities()) {
+                if (!(entity instanceof Player)) {
+                    skipEntityTick(entity, multiplier);
+                }
+            }
         }
     }
 
@@ -205,47 +737,36 @@ public class LazyChunkManager {
         // sondern setzen die Entity auf "inaktiv" für mehrere Ticks
 
         if (entity instanceof LivingEntity) {
-            LivingEntity living = (LivingEntity) entity;
-
-            // AI-Verhalten reduzieren
+            // AI-Verhalten reduzieren: einmal pausieren, das Wheel setzt sie nach multiplier-1 Ticks fort
             if (multiplier >= 8) {
-                living.setAI(false);
-                // Nach dem richtigen Tick wieder aktivieren
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    if (living.isValid()) {
-                        living.setAI(true);
-                    }
-                }, multiplier);
+                suspensionWheel.suspend((LivingEntity) entity, multiplier - 1);
             }
         }
     }
 
-    private void slowRedstone(Chunk chunk, int multiplier) {
-        // Redstone-Update-Rate reduzieren
-        // Hier könntest du mit Paper/Spigot APIs arbeiten
-        // oder einen Block-Event-Listener verwenden
-    }
-
+    /**
+     * ADAPTIVE LAZYNESS: Regler verschiebt den effektiven Radius zwischen min-distance und distance
+     */
     private void adjustAdaptiveDistance() {
         if (!configManager.isAdaptiveLaziness()) return;
 
-        double currentTPS = Bukkit.getTPS()[0];
-        double threshold = configManager.getAdaptiveTPSThreshold();
-
-        if (currentTPS < threshold) {
-            // TPS ist schlecht - Reduziere den normalen Bereich
-            int currentDistance = configManager.getLazyChunksDistance();
-            int minDistance = configManager.getLazyChunksMinDistance();
-
-            if (currentDistance > minDistance) {
-                // Wir können die Config nicht live ändern, aber wir können
-                // den effektiven Basis-Abstand für die Berechnung anpassen
-                plugin.getLogger().warning(
-                        String.format("⚠ Adaptive Lazy Chunks: TPS %.1f < %.1f - " +
-                                        "Reduziere aktiven Bereich",
-                                currentTPS, threshold)
-                );
-            }
+        double mspt = tickSampler.getMspt(configManager.getLazyMsptMetric());
+        lastMspt = mspt;
+
+        int before = distanceController.getEffectiveDistance();
+        int after = distanceController.update(mspt,
+                configManager.getAdaptiveTargetMspt(),
+                configManager.getAdaptiveHysteresisMspt(),
+                configManager.getLazyChunksMinDistance(),
+                configManager.getLazyChunksDistance());
+
+        if (after != before) {
+            // Multiplier aller Chunks sofort mit dem neuen Radius neu berechnen
+            updateChunkDistances();
+            plugin.getLogger().info(
+                    String.format("Adaptive Lazy Chunks: MSPT %.1f (target %.1f) - active radius %d -> %d",
+                            mspt, configManager.getAdaptiveTargetMspt(), before, after)
+            );
         }
     }
 
@@ -263,77 +784,71 @@ public class LazyChunkManager {
         if (monitoringTask != null) {
             monitoringTask.cancel();
         }
-
-        // Alle Entities wieder normal ticken lassen
-        for (ChunkTickData data : chunkTickMap.values()) {
-            restoreChunk(data.getChunk());
-        }
-
-        chunkTickMap.clear();
+        HandlerList.unregisterAll(this);
+        HandlerList.unregisterAll(redstoneThrottler);
+        redstoneThrottler.flush();
+        HandlerList.unregisterAll(cropThrottler);
+        HandlerList.unregisterAll(fluidThrottler);
+        HandlerList.unregisterAll(activityTracker);
+        activityTracker.clear();
+        cropThrottler.clear();
+        fluidThrottler.clear();
+
+        // Alle pausierten Entities wieder normal ticken lassen
+        suspensionWheel.resumeAll();
+
+        chunkTables.clear();
+        sweepWorlds.clear();
+        distanceFields.clear();
+        playerChunks.clear();
         isActive = false;
         plugin.getLogger().info("✓ Lazy Chunks Manager gestoppt");
     }
 
-    private void restoreChunk(Chunk chunk) {
-        for (Entity entity : chunk.getEntities()) {
-            if (entity instanceof LivingEntity) {
-                ((LivingEntity) entity).setAI(true);
-            }
-        }
-    }
-
     public boolean isActive() {
         return isActive;
     }
 
     // Hilfsklassen
-    private static class ChunkPosition {
-        private final World world;
-        private final int x, z;
-
-        public ChunkPosition(Chunk chunk) {
-            this.world = chunk.getWorld();
-            this.x = chunk.getX();
-            this.z = chunk.getZ();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            ChunkPosition that = (ChunkPosition) o;
-            return x == that.x && z == that.z && world.equals(that.world);
+    private static class PlayerChunk {
+        private UUID world;
+        private long key;
+        private long predictedKey = NO_PREDICTION;
+        private boolean sampled = false;
+        private double lastX, lastZ;
+
+        public PlayerChunk(UUID world, long key) {
+            this.world = world;
+            this.key = key;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(world, x, z);
+        public void sample(double x, double z) {
+            this.lastX = x;
+            this.lastZ = z;
+            this.sampled = true;
         }
     }
 
-    private static class ChunkTickData {
-        private final Chunk chunk;
-        private int tickMultiplier;
-        private int currentTick = 0;
-
-        public ChunkTickData(Chunk chunk, int tickMultiplier) {
-            this.chunk = chunk;
-            this.tickMultiplier = tickMultiplier;
-        }
-
-        public boolean shouldSkipTick() {
-            currentTick++;
-            return currentTick % tickMultiplier != 0;
-        }
-
-        public void resetTickCounter() {
-            currentTick = 0;
+    public static class FluidChunkStats {
+        private final String world;
+        private final int x, z;
+        private final int allowed, throttled, multiplier;
+
+        public FluidChunkStats(String world, int x, int z, int allowed, int throttled, int multiplier) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+            this.allowed = allowed;
+            this.throttled = throttled;
+            this.multiplier = multiplier;
         }
 
-        public Chunk getChunk() { return chunk; }
-        public int getTickMultiplier() { return tickMultiplier; }
-        public void setTickMultiplier(int multiplier) {
-            this.tickMultiplier = multiplier;
-        }
+        public String getWorld() { return world; }
+        public int getX() { return x; }
+        public int getZ() { return z; }
+        public int getAllowed() { return allowed; }
+        public int getThrottled() { return throttled; }
+        public int getMultiplier() { return multiplier; }
+        public long getTotal() { return (long) allowed + throttled; }
     }
-}
\ No newline at end of file
+}
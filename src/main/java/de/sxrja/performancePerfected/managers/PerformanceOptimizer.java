@@ -4,13 +4,16 @@ import de.sxrja.performancePerfected.PerformancePerfected;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.HandlerList;
 import org.bukkit.entity.*;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class PerformanceOptimizer {
 
@@ -27,6 +30,41 @@ public class PerformanceOptimizer {
     private boolean isAdaptiveCleanupRunning = false;
     private int adaptiveCleanupTaskId = -1;
 
+    // Laufender chunkweiser Cleanup (höchstens einer gleichzeitig)
+    private CleanupJob activeCleanupJob = null;
+
+    // Laufende Entity-Zählung für /pp analyze
+    private EntityCensus activeCensus = null;
+
+    // Live-Index aller Entities nach Kategorie und Chunk
+    private final EntityRegistry entityRegistry = new EntityRegistry();
+    private BukkitRunnable entityRegistryTask = null;
+
+    // Ablauf-Index für Items, XP, Pfeile und Fahrzeuge
+    private final ExpiryQueue expiryQueue = new ExpiryQueue();
+    private BukkitRunnable expiryQueueTask = null;
+
+    // Schreibt server.properties/paper/spigot/bukkit.yml asynchron und atomar
+    private final ServerConfigWriter serverConfigWriter;
+
+    // Tick-Dauern aller Ticks (Perzentile statt TPS-Schnitt)
+    private final TickSampler tickSampler = new TickSampler();
+
+    // Stack-Stichproben bei Lag-Spitzen (watchdog.*)
+    private final StallWatchdog stallWatchdog;
+
+    // Sicht-/Simulationsdistanz pro Spieler (player-distance.*)
+    private final PlayerDistanceManager playerDistanceManager;
+
+    // Tick-Zeit pro Plugin (profiling.plugin-timing)
+    private final PluginCostTracker pluginCostTracker;
+
+    // Gestuftes Notfallprotokoll (emergency.actions.*)
+    private final EmergencyLadder emergencyLadder = new EmergencyLadder();
+
+    // Spawn-Limits pro Chunk (cleanup.limits)
+    private final ChunkEntityCaps chunkEntityCaps = new ChunkEntityCaps();
+
     // Timers für verschiedene Funktionen
     private BukkitRunnable emergencyMonitorTask = null;
     private BukkitRunnable adaptiveMonitorTask = null;
@@ -35,19 +73,34 @@ public class PerformanceOptimizer {
         this.plugin = plugin;
         this.configManager = configManager;
         this.notificationManager = notificationManager;
-        this.lazyChunkManager = new LazyChunkManager(plugin, configManager);
-
-        this.activeConfig = configManager.getActiveConfig();
+        this.lazyChunkManager = new LazyChunkManager(plugin, configManager, tickSampler);
+        plugin.getServer().getPluginManager().registerEvents(tickSampler, plugin);
+        this.stallWatchdog = new StallWatchdog(plugin, tickSampler);
+        this.pluginCostTracker = new PluginCostTracker(plugin);
+        this.serverConfigWriter = new ServerConfigWriter(plugin);
+        this.playerDistanceManager = new PlayerDistanceManager(plugin, tickSampler);
+
+        if (!refreshActiveConfig()) {
+            plugin.getLogger().severe("CRITICAL ERROR: Could not load any configuration!");
+            throw new IllegalStateException("No configuration loaded!");
+        }
+    }
 
-        if (this.activeConfig == null) {
+    /**
+     * AKTIVE CONFIG NEU HOLEN - reloadConfigs() ersetzt die Config-Objekte, eine gemerkte Referenz
+     * würde sonst nach /pp reload weiter die alten Werte liefern
+     * @return false, wenn gar keine Config geladen ist (activeConfig bleibt dann unverändert)
+     */
+    private boolean refreshActiveConfig() {
+        YamlConfiguration config = configManager.getActiveConfig();
+        if (config == null) {
             plugin.getLogger().warning("WARNING: Active config is null! Using default config instead.");
-            this.activeConfig = configManager.getConfig();
+            config = configManager.getConfig();
         }
+        if (config == null) return false;
 
-        if (this.activeConfig == null) {
-            plugin.getLogger().severe("CRITICAL ERROR: Could not load any configuration!");
-            throw new IllegalStateException("No configuration loaded!");
-        }
+        this.activeConfig = config;
+        return true;
     }
 
     /**
@@ -58,288 +111,404 @@ public class PerformanceOptimizer {
                 "&7[Performance] &fApplying optimizations...");
         plugin.getLogger().info(configManager.stripColor(applyingMsg));
 
-        // Alle Optimierungsbereiche durchgehen
-        optimizeServerProperties();
-        optimizePaperConfig();
-        optimizeSpigotConfig();
-        optimizeBukkitConfig();
-        optimizeLazyChunks();
-
-        if (restartRequired) {
-            String restartMsg = configManager.getLangMessage("config.restart-required",
-                    "&e⚠ &6Restart required for some optimizations!");
-            plugin.getLogger().warning(configManager.stripColor(restartMsg));
+        if (!refreshActiveConfig()) {
+            plugin.getLogger().severe("Could not load any configuration - keeping the previous settings");
         }
 
+        // Server-Configs: Plan auf dem Main-Thread, Datei-I/O im Async-Pool
+        serverConfigWriter.getBackupStore().setMaxPerFile(activeConfig.getInt("backups.max-per-file", 10));
+        serverConfigWriter.applyAsync(planServerConfigs(activeConfig), this::onServerConfigsWritten);
+        applyRuntimeSettings();
+        configurePlayerDistance();
+        optimizeLazyChunks();
+
+        startEntityRegistry();
+        configureExpiryQueue();
+        configureChunkEntityCaps();
+        configureStallWatchdog();
         startEmergencyMonitor();
         startAdaptiveCleanupMonitor();
-    }
-    private void optimizeLazyChunks() {
-        if (configManager.isLazyChunksEnabled()) {
-            lazyChunkManager.start();
-
-            String lazyMsg = configManager.getLangMessage("lazy-chunks.enabled",
-                    "&7[Performance] &fLazy Chunks aktiviert: &e{DISTANCE} &7Chunks normal, restlich exponentiell langsamer"
-            ).replace("{DISTANCE}", String.valueOf(configManager.getLazyChunksDistance()));
-
-            plugin.getLogger().info(configManager.stripColor(lazyMsg));
 
-            if (configManager.isAdaptiveLaziness()) {
-                plugin.getLogger().info("✓ Adaptive Lazyness aktiviert (reduziert bei niedrigen TPS)");
-            }
+        // Zuletzt, damit auch die eigenen Listener und Tasks mitgemessen werden
+        if (activeConfig.getBoolean("profiling.plugin-timing", false)) {
+            pluginCostTracker.start();
+        } else {
+            pluginCostTracker.stop();
         }
     }
 
+
     /**
-     * 1. SERVER.PROPERTIES OPTIMIERUNGEN
+     * ENTITY-INDEX STARTEN (einmalig, bleibt über Reloads hinweg registriert)
      */
-    private void optimizeServerProperties() {
-        try {
-            File serverProps = new File(plugin.getServer().getWorldContainer(), "server.properties");
-            Properties props = new Properties();
-            props.load(new FileInputStream(serverProps));
-
-            boolean changed = false;
-
-            // View-Distance optimieren
-            int viewDistance = activeConfig.getInt("view-distance", 8);
-            if (setPropertyIfDifferent(props, "view-distance", String.valueOf(Math.max(2, Math.min(32, viewDistance))))) {
-                changed = true;
-            }
+    private void startEntityRegistry() {
+        if (entityRegistryTask != null) return;
 
-            // Simulation-Distance optimieren
-            int simulationDistance = activeConfig.getInt("simulation-distance", 6);
-            if (setPropertyIfDifferent(props, "simulation-distance", String.valueOf(Math.max(2, Math.min(32, simulationDistance))))) {
-                changed = true;
+        plugin.getServer().getPluginManager().registerEvents(entityRegistry, plugin);
+        entityRegistry.registerLoadedEntities();
+        entityRegistryTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                entityRegistry.tick();
             }
+        };
+        entityRegistryTask.runTaskTimer(plugin, 1L, 1L);
+    }
 
-            // Network-Compression optimieren
-            int compressionThreshold = activeConfig.getInt("network.compression-threshold", 256);
-            if (setPropertyIfDifferent(props, "network-compression-threshold", String.valueOf(compressionThreshold))) {
-                changed = true;
-            }
+    /**
+     * ABLAUF-INDEX KONFIGURIEREN (Lebensdauer pro Kategorie, 0 = nie entfernen)
+     */
+    private void configureExpiryQueue() {
+        int minItemAgeSeconds = activeConfig.getInt("cleanup.min-item-age-seconds", 30);
 
-            // Max Players limitieren
-            int maxPlayers = activeConfig.getInt("max-players", 20);
-            if (setPropertyIfDifferent(props, "max-players", String.valueOf(Math.max(1, Math.min(1000, maxPlayers))))) {
-                changed = true;
-            }
+        boolean removeGroundItems = getCleanupFlag("ground-items", "remove-ground-items");
+        boolean removeInactiveVehicles = getCleanupFlag("inactive-vehicles", "remove-inactive-vehicles");
+        boolean removeExperienceOrbs = getCleanupFlag("experience-orbs", "remove-experience-orbs");
+        int xpSeconds = activeConfig.getInt("cleanup.remove.experience-orb-older-than-seconds", minItemAgeSeconds);
+        int arrowSeconds = activeConfig.getInt("cleanup.remove.arrows-older-than-seconds", 0);
+
+        // Im Merge-Modus werden Items und XP nie gelöscht
+        boolean merge = isMergeMode();
+        expiryQueue.configure(
+                removeGroundItems && !merge ? minItemAgeSeconds * 20 : 0,
+                removeExperienceOrbs && !merge ? xpSeconds * 20 : 0,
+                arrowSeconds * 20,
+                removeInactiveVehicles ? minItemAgeSeconds * 20 : 0);
+
+        if (expiryQueueTask == null) {
+            plugin.getServer().getPluginManager().registerEvents(expiryQueue, plugin);
+            // Abgelaufene Buckets auch ohne Cleanup-Lauf abbauen (1x pro Sekunde, gedeckelt)
+            expiryQueueTask = new BukkitRunnable() {
+                @Override
+                public void run() {
+                    expiryQueue.prune(Bukkit.getCurrentTick(), 2048);
+                }
+            };
+            expiryQueueTask.runTaskTimer(plugin, 20L, 20L);
+        }
+        // Auch bei Reload neu einsortieren, da sich Lebensdauern geändert haben können
+        expiryQueue.registerLoadedEntities();
+    }
 
-            if (changed) {
-                createBackup(serverProps);
-                props.store(new FileOutputStream(serverProps), "Optimized by PerformancePerfected");
-                plugin.getLogger().info("✓ server.properties optimized");
-                restartRequired = true;
-            } else {
-                plugin.getLogger().info("✓ server.properties already optimized");
-            }
+    /**
+     * WATCHDOG FÜR LAG-SPITZEN (eigener Daemon-Thread, schreibt spikes/*.folded)
+     */
+    private void configureStallWatchdog() {
+        stallWatchdog.stop();
+        if (!activeConfig.getBoolean("watchdog.enabled", false)) {
+            return;
+        }
+        stallWatchdog.start(
+                activeConfig.getLong("watchdog.threshold-ms", 100),
+                activeConfig.getLong("watchdog.sample-interval-ms", 10),
+                activeConfig.getInt("watchdog.min-spike-interval-seconds", 10),
+                activeConfig.getInt("watchdog.max-files", 20));
+    }
 
-        } catch (IOException e) {
-            plugin.getLogger().warning("Could not optimize server.properties: " + e.getMessage());
+    /**
+     * DISTANZ PRO SPIELER (nach MSPT, Spielerdichte und Bewegung)
+     */
+    private void configurePlayerDistance() {
+        playerDistanceManager.stop();
+        if (!activeConfig.getBoolean("player-distance.enabled", false)) {
+            return;
         }
+        playerDistanceManager.start(
+                activeConfig.getInt("player-distance.min-view-distance", 4),
+                activeConfig.getInt("player-distance.min-simulation-distance", 3),
+                activeConfig.getDouble("player-distance.target-mspt", 45.0),
+                activeConfig.getDouble("player-distance.hysteresis-mspt", 5.0),
+                getMsptMetric("player-distance.mspt-metric", "avg:5s"),
+                activeConfig.getInt("player-distance.crowd-radius", 48),
+                activeConfig.getInt("player-distance.crowd-players", 8),
+                activeConfig.getInt("player-distance.crowd-penalty", 2),
+                activeConfig.getInt("player-distance.idle-seconds", 30),
+                activeConfig.getInt("player-distance.idle-penalty", 2));
+        plugin.getLogger().info("✓ Per-player view distance active");
     }
 
     /**
-     * 2. PAPER-WORLD-DEFAULTS.YML OPTIMIERUNGEN
+     * SPAWN-LIMITS PRO CHUNK AKTIVIEREN (nur registriert, wenn mindestens ein Limit gesetzt ist)
      */
-    private void optimizePaperConfig() {
-        try {
-            File paperConfig = new File(plugin.getServer().getWorldContainer(), "config/paper-world-defaults.yml");
-            if (!paperConfig.exists()) {
-                plugin.getLogger().warning("Paper config not found, skipping...");
-                return;
-            }
+    private void configureChunkEntityCaps() {
+        HandlerList.unregisterAll(chunkEntityCaps);
+        chunkEntityCaps.configure(configManager.getMaxItemsPerChunk(),
+                configManager.getMaxExperienceOrbsPerChunk(),
+                configManager.getMobCapsPerChunk());
+
+        if (chunkEntityCaps.hasLimits()) {
+            plugin.getServer().getPluginManager().registerEvents(chunkEntityCaps, plugin);
+            plugin.getLogger().info("✓ Chunk entity limits active");
+        }
+    }
 
-            YamlConfiguration paperYaml = YamlConfiguration.loadConfiguration(paperConfig);
-            boolean changed = false;
-
-            if (activeConfig.contains("entity.activation-range")) {
-                paperYaml.set("entity-activation-range.animals",
-                        activeConfig.getInt("entity.activation-range.animals", 20));
-                paperYaml.set("entity-activation-range.monsters",
-                        activeConfig.getInt("entity.activation-range.monsters", 24));
-                paperYaml.set("entity-activation-range.misc",
-                        activeConfig.getInt("entity.activation-range.misc", 8));
-                paperYaml.set("entity-activation-range.tick-inactive-villagers",
-                        activeConfig.getBoolean("entity.activation-range.tick-inactive-villagers", false));
-                changed = true;
-            }
+    // cleanup.mode: delete (Standard) oder merge
+    private boolean isMergeMode() {
+        return "merge".equalsIgnoreCase(activeConfig.getString("cleanup.mode", "delete"));
+    }
 
-            if (activeConfig.contains("spawn-limits")) {
-                paperYaml.set("spawn-limits.monsters",
-                        activeConfig.getInt("spawn-limits.monsters", 30));
-                paperYaml.set("spawn-limits.animals",
-                        activeConfig.getInt("spawn-limits.animals", 15));
-                paperYaml.set("spawn-limits.water-animals",
-                        activeConfig.getInt("spawn-limits.water-animals", 5));
-                paperYaml.set("spawn-limits.ambient",
-                        activeConfig.getInt("spawn-limits.ambient", 2));
-                changed = true;
-            }
+    // advanced-config nutzt cleanup.remove.<key>, config.yml cleanup.remove-<key>
+    private boolean getCleanupFlag(String nestedKey, String flatKey) {
+        return activeConfig.getBoolean("cleanup.remove." + nestedKey,
+                activeConfig.getBoolean("cleanup." + flatKey, true));
+    }
+    private void optimizeLazyChunks() {
+        if (configManager.isLazyChunksEnabled()) {
+            lazyChunkManager.start();
 
-            if (activeConfig.contains("despawn-ranges")) {
-                paperYaml.set("despawn-ranges.soft",
-                        activeConfig.getInt("despawn-ranges.soft", 32));
-                paperYaml.set("despawn-ranges.hard",
-                        activeConfig.getInt("despawn-ranges.hard", 128));
-                changed = true;
-            }
+            String lazyMsg = configManager.getLangMessage("lazy-chunks.enabled",
+                    "&7[Performance] &fLazy Chunks aktiviert: &e{DISTANCE} &7Chunks normal, restlich exponentiell langsamer"
+            ).replace("{DISTANCE}", String.valueOf(configManager.getLazyChunksDistance()));
 
-            if (activeConfig.contains("redstone")) {
-                paperYaml.set("redstone.disable-falling-dust",
-                        activeConfig.getBoolean("redstone.disable-falling-dust", false));
-                paperYaml.set("redstone.disable-item-frame-glow",
-                        activeConfig.getBoolean("redstone.disable-item-frame-glow", false));
-                changed = true;
-            }
+            plugin.getLogger().info(configManager.stripColor(lazyMsg));
 
-            if (changed) {
-                createBackup(paperConfig);
-                paperYaml.save(paperConfig);
-                plugin.getLogger().info("✓ Paper config optimized");
-                restartRequired = true;
+            if (configManager.isAdaptiveLaziness()) {
+                plugin.getLogger().info("✓ Adaptive Lazyness aktiviert (regelt den aktiven Radius nach MSPT)");
             }
-
-        } catch (IOException e) {
-            plugin.getLogger().warning("Could not optimize Paper config: " + e.getMessage());
+        } else if (lazyChunkManager.isActive()) {
+            // Per /pp reload abgeschaltet: Listener, Task und AI-Sperren beenden
+            lazyChunkManager.stop();
         }
     }
 
     /**
-     * 3. SPIGOT.YML OPTIMIERUNGEN
+     * SERVER-CONFIGS PLANEN (nur Werte aus der Plugin-Config, kein Datei-Zugriff)
+     * Lesen, Vergleichen und atomares Schreiben übernimmt der ServerConfigWriter im Async-Pool.
+     * Bekommt die gerade neu geladene Config übergeben, damit /pp reload keine alten Werte plant.
      */
-    private void optimizeSpigotConfig() {
-        try {
-            File spigotConfig = new File(plugin.getServer().getWorldContainer(), "spigot.yml");
-            if (!spigotConfig.exists()) {
-                plugin.getLogger().warning("Spigot config not found, skipping...");
-                return;
-            }
-
-            YamlConfiguration spigotYaml = YamlConfiguration.loadConfiguration(spigotConfig);
-            boolean changed = false;
+    private ServerConfigWriter.Plan planServerConfigs(YamlConfiguration config) {
+        File container = plugin.getServer().getWorldContainer();
+        ServerConfigWriter.Plan plan = new ServerConfigWriter.Plan();
+
+        // 1. server.properties
+        Map<String, String> props = plan.properties(new File(container, "server.properties"), "server.properties");
+        int viewDistance = config.getInt("view-distance", 8);
+        props.put("view-distance", String.valueOf(Math.max(2, Math.min(32, viewDistance))));
+        int simulationDistance = config.getInt("simulation-distance", 6);
+        props.put("simulation-distance", String.valueOf(Math.max(2, Math.min(32, simulationDistance))));
+        int compressionThreshold = config.getInt("network.compression-threshold", 256);
+        props.put("network-compression-threshold", String.valueOf(compressionThreshold));
+        int maxPlayers = config.getInt("max-players", 20);
+        props.put("max-players", String.valueOf(Math.max(1, Math.min(1000, maxPlayers))));
+
+        // 2. paper-world-defaults.yml
+        Map<String, Object> paper = plan.yaml(new File(container, "config/paper-world-defaults.yml"), "Paper config");
+        if (config.contains("entity.activation-range")) {
+            paper.put("entity-activation-range.animals",
+                    config.getInt("entity.activation-range.animals", 20));
+            paper.put("entity-activation-range.monsters",
+                    config.getInt("entity.activation-range.monsters", 24));
+            paper.put("entity-activation-range.misc",
+                    config.getInt("entity.activation-range.misc", 8));
+            paper.put("entity-activation-range.tick-inactive-villagers",
+                    config.getBoolean("entity.activation-range.tick-inactive-villagers", false));
+        }
+        if (config.contains("spawn-limits")) {
+            paper.put("spawn-limits.monsters", config.getInt("spawn-limits.monsters", 30));
+            paper.put("spawn-limits.animals", config.getInt("spawn-limits.animals", 15));
+            paper.put("spawn-limits.water-animals", config.getInt("spawn-limits.water-animals", 5));
+            paper.put("spawn-limits.ambient", config.getInt("spawn-limits.ambient", 2));
+        }
+        if (config.contains("despawn-ranges")) {
+            paper.put("despawn-ranges.soft", config.getInt("despawn-ranges.soft", 32));
+            paper.put("despawn-ranges.hard", config.getInt("despawn-ranges.hard", 128));
+        }
+        if (config.contains("redstone")) {
+            paper.put("redstone.disable-falling-dust",
+                    config.getBoolean("redstone.disable-falling-dust", false));
+            paper.put("redstone.disable-item-frame-glow",
+                    config.getBoolean("redstone.disable-item-frame-glow", false));
+        }
 
-            if (setYamlIfDifferent(spigotYaml, "world-settings.default.entity-tracking-range.players", 48)) {
-                changed = true;
-            }
-            if (setYamlIfDifferent(spigotYaml, "world-settings.default.entity-tracking-range.animals", 32)) {
-                changed = true;
-            }
-            if (setYamlIfDifferent(spigotYaml, "world-settings.default.entity-tracking-range.monsters", 32)) {
-                changed = true;
-            }
-            if (setYamlIfDifferent(spigotYaml, "world-settings.default.entity-tracking-range.misc", 16)) {
-                changed = true;
-            }
+        // 3. spigot.yml
+        Map<String, Object> spigot = plan.yaml(new File(container, "spigot.yml"), "Spigot config");
+        spigot.put("world-settings.default.entity-tracking-range.players", 48);
+        spigot.put("world-settings.default.entity-tracking-range.animals", 32);
+        spigot.put("world-settings.default.entity-tracking-range.monsters", 32);
+        spigot.put("world-settings.default.entity-tracking-range.misc", 16);
+        spigot.put("world-settings.default.mob-spawn-range", 6);
+
+        // 4. bukkit.yml
+        Map<String, Object> bukkit = plan.yaml(new File(container, "bukkit.yml"), "Bukkit config");
+        bukkit.put("spawn-limits.monsters", config.getInt("spawn-limits.monsters", 30));
+        bukkit.put("spawn-limits.animals", config.getInt("spawn-limits.animals", 15));
+        bukkit.put("spawn-limits.water-animals", config.getInt("spawn-limits.water-animals", 5));
+        bukkit.put("spawn-limits.ambient", config.getInt("spawn-limits.ambient", 2));
+        bukkit.put("chunk-gc.period-in-ticks", 600);
+
+        return plan;
+    }
 
-            if (setYamlIfDifferent(spigotYaml, "world-settings.default.mob-spawn-range", 6)) {
-                changed = true;
+    /**
+     * ERGEBNIS DES CONFIG-SCHREIBERS AUSWERTEN (Main-Thread)
+     * Neustart nur, wenn sich ein Wert geändert hat, den applyRuntimeSettings() nicht live setzt
+     */
+    private void onServerConfigsWritten(ServerConfigWriter.Result result) {
+        boolean needsRestart = false;
+        for (Map.Entry<String, List<String>> entry : result.getChanged().entrySet()) {
+            List<String> restartKeys = new ArrayList<>();
+            for (String key : entry.getValue()) {
+                if (!isLiveSetting(key)) {
+                    restartKeys.add(key);
+                }
             }
-
-            if (changed) {
-                createBackup(spigotConfig);
-                spigotYaml.save(spigotConfig);
-                plugin.getLogger().info("✓ Spigot config optimized");
-                restartRequired = true;
+            if (restartKeys.isEmpty()) {
+                plugin.getLogger().info("✓ " + entry.getKey() + " optimized (applied live)");
+            } else {
+                plugin.getLogger().info("✓ " + entry.getKey() + " optimized (restart needed for " +
+                        String.join(", ", restartKeys) + ")");
+                needsRestart = true;
             }
+        }
+        for (String label : result.getUnchanged()) {
+            plugin.getLogger().info("✓ " + label + " already optimized");
+        }
+        for (String label : result.getMissing()) {
+            plugin.getLogger().warning(label + " not found, skipping...");
+        }
+        for (Map.Entry<String, String> entry : result.getFailed().entrySet()) {
+            plugin.getLogger().warning("Could not optimize " + entry.getKey() + ": " + entry.getValue());
+        }
 
-        } catch (IOException e) {
-            plugin.getLogger().warning("Could not optimize Spigot config: " + e.getMessage());
+        if (needsRestart) {
+            restartRequired = true;
+            String restartMsg = configManager.getLangMessage("config.restart-required",
+                    "&e⚠ &6Restart required for some optimizations!");
+            plugin.getLogger().warning(configManager.stripColor(restartMsg));
         }
     }
 
+    // Schlüssel aus server.properties/paper/bukkit.yml, die applyRuntimeSettings() zur Laufzeit setzt
+    private static boolean isLiveSetting(String key) {
+        return key.equals("view-distance") || key.equals("simulation-distance")
+                || key.equals("max-players") || key.startsWith("spawn-limits.");
+    }
+
     /**
-     * 4. BUKKIT.YML OPTIMIERUNGEN
+     * LAUFZEIT-EINSTELLUNGEN ANWENDEN (Paper-API, kein Neustart nötig)
+     * Gleiche Werte wie in planServerConfigs(), damit Datei und laufender Server übereinstimmen.
      */
-    private void optimizeBukkitConfig() {
-        try {
-            File bukkitConfig = new File(plugin.getServer().getWorldContainer(), "bukkit.yml");
-            if (!bukkitConfig.exists()) {
-                plugin.getLogger().warning("Bukkit config not found, skipping...");
-                return;
-            }
+    private void applyRuntimeSettings() {
+        int viewDistance = Math.max(2, Math.min(32, activeConfig.getInt("view-distance", 8)));
+        int simulationDistance = Math.max(2, Math.min(32, activeConfig.getInt("simulation-distance", 6)));
+        int maxPlayers = Math.max(1, Math.min(1000, activeConfig.getInt("max-players", 20)));
 
-            YamlConfiguration bukkitYaml = YamlConfiguration.loadConfiguration(bukkitConfig);
-            boolean changed = false;
+        if (Bukkit.getMaxPlayers() != maxPlayers) {
+            Bukkit.setMaxPlayers(maxPlayers);
+        }
 
-            if (setYamlIfDifferent(bukkitYaml, "spawn-limits.monsters", 30)) {
-                changed = true;
-            }
-            if (setYamlIfDifferent(bukkitYaml, "spawn-limits.animals", 15)) {
-                changed = true;
-            }
-            if (setYamlIfDifferent(bukkitYaml, "spawn-limits.water-animals", 5)) {
-                changed = true;
-            }
-            if (setYamlIfDifferent(bukkitYaml, "spawn-limits.ambient", 2)) {
-                changed = true;
-            }
+        for (World world : Bukkit.getWorlds()) {
+            try {
+                // Nur bei Abweichung setzen - jede Änderung schickt allen Spielern der Welt die Chunks neu
+                if (world.getViewDistance() != viewDistance) {
+                    world.setViewDistance(viewDistance);
+                }
+                if (world.getSimulationDistance() != simulationDistance) {
+                    world.setSimulationDistance(simulationDistance);
+                }
 
-            if (setYamlIfDifferent(bukkitYaml, "chunk-gc.period-in-ticks", 600)) {
-                changed = true;
-            }
+                world.setSpawnLimit(SpawnCategory.MONSTER, activeConfig.getInt("spawn-limits.monsters", 30));
+                world.setSpawnLimit(SpawnCategory.ANIMAL, activeConfig.getInt("spawn-limits.animals", 15));
+                world.setSpawnLimit(SpawnCategory.WATER_ANIMAL, activeConfig.getInt("spawn-limits.water-animals", 5));
+                world.setSpawnLimit(SpawnCategory.AMBIENT, activeConfig.getInt("spawn-limits.ambient", 2));
 
-            if (changed) {
-                createBackup(bukkitConfig);
-                bukkitYaml.save(bukkitConfig);
-                plugin.getLogger().info("✓ Bukkit config optimized");
-                restartRequired = true;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Could not apply runtime settings to world " + world.getName() + ": " + e.getMessage());
             }
-
-        } catch (IOException e) {
-            plugin.getLogger().warning("Could not optimize Bukkit config: " + e.getMessage());
         }
     }
 
     /**
-     * ERWEITERTE KONFIGURATION ANWENDEN
+     * NOTFALL-ÜBERWACHUNG STARTEN (TPS- oder MSPT-Check alle check-interval-seconds)
      */
-    private void applyAdvancedConfiguration() {
-        try {
-            plugin.getLogger().info("Applying advanced optimizations...");
+    private void startEmergencyMonitor() {
+        if (emergencyMonitorTask != null) {
+            emergencyMonitorTask.cancel();
+        }
+        configureEmergencyLadder();
+        if (!activeConfig.getBoolean("emergency.enabled", true)) {
+            return;
+        }
 
-            for (World world : Bukkit.getWorlds()) {
-                optimizeWorldSpecificSettings(world);
+        emergencyMonitorTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                double currentTps = Bukkit.getTPS()[0];
+                String metric = getMsptMetric("emergency.mspt-metric", "p50:5s");
+                boolean useMspt = isMsptTrigger("emergency.trigger");
+                double value = useMspt ? tickSampler.getMspt(metric) : currentTps;
+                String load = useMspt
+                        ? String.format("MSPT %s: %.1fms", metric, value)
+                        : String.format("TPS: %.1f", value);
+
+                switch (emergencyLadder.evaluate(value, System.currentTimeMillis())) {
+                    case ESCALATED:
+                    case REPEATED:
+                        triggerEmergencyProtocol(currentTps, load);
+                        break;
+                    case DEESCALATED:
+                        relaxEmergencyStage(emergencyLadder.getLeftStage(), load);
+                        break;
+                    default:
+                        break;
+                }
             }
-
-            plugin.getLogger().info("Advanced optimizations applied");
-
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error applying advanced optimizations: " + e.getMessage());
-        }
+        };
+        long intervalTicks = Math.max(1, activeConfig.getInt("emergency.check-interval-seconds", 5)) * 20L;
+        emergencyMonitorTask.runTaskTimer(plugin, 100L, intervalTicks);
     }
 
     /**
-     * WELT-SPEZIFISCHE EINSTELLUNGEN OPTIMIEREN
+     * ESKALATIONSSTUFEN AUS emergency.actions.* IN FESTER REIHENFOLGE
+     * Von harmlos (Items) bis destruktiv (Mobs, Bilder/Rahmen)
      */
-    private void optimizeWorldSpecificSettings(World world) {
-        try {
-            world.setMonsterSpawnLimit(activeConfig.getInt("spawn-limits.monsters", 30));
-            world.setAnimalSpawnLimit(activeConfig.getInt("spawn-limits.animals", 15));
-            world.setWaterAnimalSpawnLimit(activeConfig.getInt("spawn-limits.water-animals", 5));
-            world.setAmbientSpawnLimit(activeConfig.getInt("spawn-limits.ambient", 2));
+    private void configureEmergencyLadder() {
+        List<EmergencyLadder.Stage> stages = new ArrayList<>();
+        if (activeConfig.getBoolean("emergency.actions.clear-ground-items", true)) {
+            stages.add(EmergencyLadder.Stage.GROUND_ITEMS);
+        }
+        if (activeConfig.getBoolean("emergency.actions.clear-projectiles", true)) {
+            stages.add(EmergencyLadder.Stage.PROJECTILES);
+        }
+        if (activeConfig.getBoolean("emergency.actions.clear-vehicles", true)) {
+            stages.add(EmergencyLadder.Stage.VEHICLES);
+        }
+        if (activeConfig.getBoolean("emergency.actions.shrink-lazy-radius", true)) {
+            stages.add(EmergencyLadder.Stage.LAZY_RADIUS);
+        }
+        // Einfache config.yml: emergency.kill-non-player-entities
+        if (activeConfig.getBoolean("emergency.actions.kill-non-player-entities",
+                activeConfig.getBoolean("emergency.kill-non-player-entities", true))) {
+            stages.add(EmergencyLadder.Stage.MOBS);
+        }
+        if (activeConfig.getBoolean("emergency.actions.clear-painting-itemframes", true)) {
+            stages.add(EmergencyLadder.Stage.HANGING);
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().warning("Could not optimize world " + world.getName() + ": " + e.getMessage());
+        long cooldownMillis = activeConfig.getInt("emergency.escalation.stage-cooldown-seconds", 30) * 1000L;
+        int recoverChecks = activeConfig.getInt("emergency.escalation.recover-checks", 6);
+        if (isMsptTrigger("emergency.trigger")) {
+            emergencyLadder.configure(stages,
+                    activeConfig.getDouble("emergency.mspt-threshold", 45.0), true, cooldownMillis,
+                    activeConfig.getDouble("emergency.escalation.recovery-mspt-gain", 5.0),
+                    activeConfig.getDouble("emergency.escalation.recover-mspt-margin", 10.0),
+                    recoverChecks);
+        } else {
+            emergencyLadder.configure(stages,
+                    activeConfig.getDouble("emergency.tps-threshold", 15.0), false, cooldownMillis,
+                    activeConfig.getDouble("emergency.escalation.recovery-tps-gain", 1.0),
+                    activeConfig.getDouble("emergency.escalation.recover-tps-margin", 2.0),
+                    recoverChecks);
         }
     }
 
-    /**
-     * NOTFALL-ÜBERWACHUNG STARTEN (TPS-Check alle 5 Sekunden)
-     */
-    private void startEmergencyMonitor() {
-        emergencyMonitorTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                double currentTps = Bukkit.getTPS()[0];
-                double threshold = activeConfig.getDouble("emergency.tps-threshold", 15.0);
+    // Auslöser "tps" (Standard, 1-Minuten-Schnitt) oder "mspt" (Perzentile aus dem TickSampler)
+    private boolean isMsptTrigger(String path) {
+        return "mspt".equalsIgnoreCase(activeConfig.getString(path, "tps"));
+    }
 
-                if (currentTps < threshold) {
-                    triggerEmergencyProtocol(currentTps);
-                }
-            }
-        };
-        emergencyMonitorTask.runTaskTimer(plugin, 100L, 100L); // Alle 5 Sekunden
+    private String getMsptMetric(String path, String fallback) {
+        return TickSampler.normalizeMetric(activeConfig.getString(path, fallback), fallback);
     }
 
     /**
@@ -349,7 +518,6 @@ public class PerformanceOptimizer {
         adaptiveMonitorTask = new BukkitRunnable() {
             @Override
             public void run() {
-                double currentTps = Bukkit.getTPS()[0];
                 boolean adaptiveClearingEnabled = activeConfig.getBoolean("cleanup.adaptive-clearing", true);
 
                 if (!adaptiveClearingEnabled) {
@@ -360,20 +528,31 @@ public class PerformanceOptimizer {
                     return;
                 }
 
-                // Adaptive Logik
-                double adaptiveThreshold = activeConfig.getDouble("cleanup.adaptive-tps-threshold", 17.0);
+                // Adaptive Logik: TPS-Schwelle oder MSPT-Perzentil
+                boolean overloaded;
+                String load;
+                if (isMsptTrigger("cleanup.adaptive-trigger")) {
+                    String metric = getMsptMetric("cleanup.adaptive-mspt-metric", "p95:1m");
+                    double mspt = tickSampler.getMspt(metric);
+                    overloaded = mspt > activeConfig.getDouble("cleanup.adaptive-mspt-threshold", 45.0);
+                    load = String.format("MSPT %s: %.1fms", metric, mspt);
+                } else {
+                    double currentTps = Bukkit.getTPS()[0];
+                    overloaded = currentTps < activeConfig.getDouble("cleanup.adaptive-tps-threshold", 17.0);
+                    load = String.format("TPS: %.1f", currentTps);
+                }
 
-                if (currentTps < adaptiveThreshold) {
-                    // TPS zu niedrig - Starte Cleanup Timer wenn nicht bereits läuft
+                if (overloaded) {
+                    // Server überlastet - Starte Cleanup Timer wenn nicht bereits läuft
                     if (!isAdaptiveCleanupRunning) {
                         startAdaptiveCleanupTimer();
-                        plugin.getLogger().info("⚠ Adaptive cleanup activated (TPS: " + String.format("%.1f", currentTps) + ")");
+                        plugin.getLogger().info("⚠ Adaptive cleanup activated (" + load + ")");
                     }
                 } else {
-                    // TPS normal - Stoppe Cleanup Timer wenn läuft
+                    // Last normal - Stoppe Cleanup Timer wenn läuft
                     if (isAdaptiveCleanupRunning) {
                         stopAdaptiveCleanupTimer();
-                        plugin.getLogger().info("✓ Adaptive cleanup deactivated (TPS: " + String.format("%.1f", currentTps) + ")");
+                        plugin.getLogger().info("✓ Adaptive cleanup deactivated (" + load + ")");
                     }
                 }
             }
@@ -443,57 +622,55 @@ public class PerformanceOptimizer {
 
     /**
      * INTELLIGENTES CLEANUP (für adaptives Clearing)
-     * Entfernt nur Items, die mindestens X Sekunden alt sind
+     * Entfernt nur Items, XP, Pfeile und Fahrzeuge, deren Lebensdauer laut Ablauf-Index abgelaufen ist
      */
     private void runIntelligentCleanup() {
-        int removedItems = 0;
-        int removedVehicles = 0;
-        int removedExperienceOrbs = 0;
-
-        // Mindestalter für Items in Sekunden
-        int minItemAgeSeconds = activeConfig.getInt("cleanup.min-item-age-seconds", 30);
-        long minItemAgeTicks = minItemAgeSeconds * 20L;
-        long currentTick = Bukkit.getCurrentTick();
+        runIntelligentCleanup(null);
+    }
 
-        boolean removeGroundItems = activeConfig.getBoolean("cleanup.remove-ground-items", true);
-        boolean removeInactiveVehicles = activeConfig.getBoolean("cleanup.remove-inactive-vehicles", true);
-        boolean removeExperienceOrbs = activeConfig.getBoolean("cleanup.remove-experience-orbs", true);
+    private void runIntelligentCleanup(CommandSender requester) {
+        if (isCleanupRunning()) {
+            if (requester != null) {
+                requester.sendMessage(configManager.getLangMessage("errors.already-running", "&c❌ Aktion läuft bereits"));
+            }
+            return;
+        }
 
-        for (World world : Bukkit.getWorlds()) {
-            for (Entity entity : world.getEntities()) {
-                // Nur Items, die älter als minItemAgeSeconds sind
-                if (entity instanceof Item && removeGroundItems) {
-                    if ((currentTick - entity.getTicksLived()) > minItemAgeTicks) {
-                        entity.remove();
-                        removedItems++;
-                    }
-                }
-                // Fahrzeuge (nur wenn leer und alt genug)
-                else if ((entity instanceof Boat || entity instanceof Minecart) && removeInactiveVehicles) {
-                    if (entity.getPassengers().isEmpty() && (currentTick - entity.getTicksLived()) > minItemAgeTicks) {
-                        entity.remove();
-                        removedVehicles++;
-                    }
+        if (isMergeMode()) {
+            // Merge-Modus: Items/XP zusammenlegen statt löschen, danach abgelaufene Pfeile/Fahrzeuge
+            activeCleanupJob = new CleanupJob(plugin, "Merge cleanup",
+                    new EntityMerger(activeConfig.getDouble("cleanup.merge.radius", 2.0),
+                            activeConfig.getInt("cleanup.merge.max-orb-value", 2477)),
+                    getCleanupBudgetNanos(), getCleanupMaxRemovalsPerTick(), job -> {
+                plugin.getLogger().info("🧹 " + job.getSummary());
+                if (requester != null) {
+                    requester.sendMessage("§a✅ §7" + job.getSummary());
                 }
-                // Erfahrungskugeln
-                else if (entity instanceof ExperienceOrb && removeExperienceOrbs) {
-                    if ((currentTick - entity.getTicksLived()) > minItemAgeTicks) {
-                        entity.remove();
-                        removedExperienceOrbs++;
-                    }
-                }
-            }
+                startExpiryCleanup(requester);
+            }).start();
+            return;
         }
+        startExpiryCleanup(requester);
+    }
 
-        if (removedItems > 0 || removedVehicles > 0 || removedExperienceOrbs > 0) {
-            plugin.getLogger().info(String.format("🧹 Intelligent cleanup: %d items (age > %ds), %d vehicles, %d XP orbs",
-                    removedItems, minItemAgeSeconds, removedVehicles, removedExperienceOrbs));
+    private void startExpiryCleanup(CommandSender requester) {
+        // Nur Einträge des Ablauf-Index, die wirklich abgelaufen sind
+        activeCleanupJob = new CleanupJob(plugin, "Intelligent cleanup", expiryQueue,
+                getCleanupBudgetNanos(), getCleanupMaxRemovalsPerTick(), job -> {
+            int removedItems = job.getRemoved(ExpiryQueue.ITEMS);
+            int removedVehicles = job.getRemoved(ExpiryQueue.VEHICLES);
+            int removedExperienceOrbs = job.getRemoved(ExpiryQueue.XP);
+
+            plugin.getLogger().info("🧹 " + job.getSummary());
+            if (requester != null) {
+                requester.sendMessage("§a✅ §7" + job.getSummary());
+            }
 
             // Erfolgsmeldung an Spieler
-            if (notificationManager != null) {
+            if (job.getTotalRemoved() > 0 && notificationManager != null) {
                 notificationManager.broadcastCleanupCompleted(removedItems, removedVehicles, removedExperienceOrbs);
             }
-        }
+        }).start();
     }
 
     /**
@@ -527,50 +704,118 @@ public class PerformanceOptimizer {
     /**
      * NOTFALLPROTOKOLL AUSLÖSEN
      */
-    private void triggerEmergencyProtocol(double currentTps) {
+    private void triggerEmergencyProtocol(double currentTps, String load) {
         String tpsWarning = configManager.getLangMessage("emergency.tps-low-warning",
                         "&c⚠ &6Warning: &fServer TPS is critically low (&e{TPS}&f/20)")
                 .replace("{TPS}", String.format("%.1f", currentTps));
 
         plugin.getLogger().warning(configManager.stripColor(tpsWarning));
 
-        boolean killEntities = activeConfig.getBoolean("emergency.kill-non-player-entities", true);
+        EmergencyLadder.Stage stage = emergencyLadder.getCurrentStage();
+        if (stage == null) return;
 
-        if (killEntities) {
-            killAllNonPlayerEntities();
+        plugin.getLogger().warning(String.format("Emergency stage %d/%d: %s (%s)",
+                emergencyLadder.getLevel(), emergencyLadder.getStages().size(), stage, load));
+
+        // Letzte Lag-Spitze mitloggen - zeigt, wer den Notfall ausgelöst hat
+        String spike = stallWatchdog.getRecentSpikeSummary(60_000);
+        if (spike != null) {
+            plugin.getLogger().warning("Last spike: " + spike);
+        }
+
+        switch (stage) {
+            case GROUND_ITEMS:
+                startEmergencyCleanup("Emergency: ground items",
+                        EnumSet.of(EntityRegistry.Category.ITEM, EntityRegistry.Category.XP),
+                        entity -> "items", null);
+                break;
+            case PROJECTILES:
+                startEmergencyCleanup("Emergency: projectiles",
+                        EnumSet.of(EntityRegistry.Category.PROJECTILE),
+                        entity -> entity instanceof Trident ? null : "projectiles", null); // Dreizacke gehören Spielern
+                break;
+            case VEHICLES:
+                startEmergencyCleanup("Emergency: vehicles", EnumSet.of(EntityRegistry.Category.VEHICLE),
+                        entity -> entity.getPassengers().isEmpty() ? "vehicles" : null, null);
+                break;
+            case LAZY_RADIUS:
+                if (lazyChunkManager != null && lazyChunkManager.isActive()) {
+                    lazyChunkManager.setEmergencyDistanceCap(configManager.getLazyChunksMinDistance());
+                }
+                break;
+            case MOBS:
+                startEmergencyCleanup("Emergency: mobs", EnumSet.of(EntityRegistry.Category.MOB),
+                        this::classifyExpendableMob, null);
+                break;
+            case HANGING:
+                startEmergencyCleanup("Emergency: paintings/item frames",
+                        EnumSet.of(EntityRegistry.Category.HANGING), entity -> "hanging", null);
+                break;
         }
     }
 
     /**
-     * ALLE NICHT-SPIELER-ENTITIES ENTFERNEN (Notfall-Cleanup)
+     * STUFE VERLASSEN: nur der Lazy-Radius ist umkehrbar, entfernte Entities bleiben weg
+     */
+    private void relaxEmergencyStage(EmergencyLadder.Stage stage, String load) {
+        plugin.getLogger().info(String.format("✓ Emergency de-escalated to stage %d (%s)",
+                emergencyLadder.getLevel(), load));
+        if (stage == EmergencyLadder.Stage.LAZY_RADIUS && lazyChunkManager != null) {
+            lazyChunkManager.setEmergencyDistanceCap(0);
+        }
+    }
+
+    // Mobs, die auch beim Despawnen verschwinden dürften; Händler, Haustiere, angeleinte und benannte bleiben
+    // (isPersistent() taugt dafür nicht - das ist für fast jede Entity true)
+    private String classifyExpendableMob(Entity entity) {
+        if (!(entity instanceof Mob)) return null;
+        Mob mob = (Mob) entity;
+        if (!mob.getRemoveWhenFarAway()) return null;
+        if (entity instanceof AbstractVillager || entity.getCustomName() != null || mob.isLeashed()) return null;
+        if (entity instanceof Tameable && ((Tameable) entity).isTamed()) return null;
+        if (!entity.getPassengers().isEmpty() || entity.getVehicle() != null) return null;
+        return entity.getType().toString();
+    }
+
+    /**
+     * ALLE NICHT-SPIELER-ENTITIES ENTFERNEN (Notfall-Cleanup, stückweise über mehrere Ticks)
      */
     public void killAllNonPlayerEntities() {
-        Map<String, Integer> removedCounts = new HashMap<>();
-        int totalRemoved = 0;
+        killAllNonPlayerEntities(null);
+    }
 
+    public void killAllNonPlayerEntities(CommandSender requester) {
         String activatedMsg = configManager.getLangMessage("emergency.emergency-activated",
                 "&4🚨 &cEmergency protocol activated! &fRemoving non-player entities...");
         plugin.getLogger().warning(configManager.stripColor(activatedMsg));
 
-        for (World world : Bukkit.getWorlds()) {
-            for (Entity entity : world.getEntities()) {
-                if (!(entity instanceof Player)) {
-                    String typeName = entity.getType().toString();
-                    removedCounts.put(typeName, removedCounts.getOrDefault(typeName, 0) + 1);
-                    entity.remove();
-                    totalRemoved++;
-                }
-            }
-        }
+        startEmergencyCleanup("Emergency cleanup", EnumSet.allOf(EntityRegistry.Category.class),
+                entity -> entity.getType().toString(), requester);
+    }
 
-        String logMessage = String.format("Emergency cleanup: %d entities removed", totalRemoved);
-        if (!removedCounts.isEmpty()) {
-            logMessage += " - " + removedCounts.entrySet().stream()
-                    .map(e -> e.getKey() + ": " + e.getValue())
-                    .collect(Collectors.joining(", "));
+    /**
+     * NOTFALL-CLEANUP STARTEN - hat Vorrang vor einem laufenden normalen Cleanup
+     * Kandidaten kommen aus dem EntityRegistry, es wird also nur die betroffene Kategorie angefasst
+     */
+    private void startEmergencyCleanup(String name, EnumSet<EntityRegistry.Category> categories,
+                                       Function<Entity, String> filter, CommandSender requester) {
+        if (activeCleanupJob != null && !activeCleanupJob.isFinished()) {
+            activeCleanupJob.abort();
+            plugin.getLogger().info("Cleanup interrupted for emergency: " + activeCleanupJob.getSummary());
         }
-        plugin.getLogger().info(logMessage);
 
+        activeCleanupJob = new CleanupJob(plugin, name, entityRegistry.getEntities(null, categories), filter,
+                getCleanupBudgetNanos(), getCleanupMaxRemovalsPerTick(), job -> {
+            plugin.getLogger().info(job.getSummary());
+            if (requester != null) {
+                requester.sendMessage("§a✅ §7" + job.getSummary());
+            }
+        }).start();
+
+        if (!activeConfig.getBoolean("emergency.notification.broadcast-warning",
+                activeConfig.getBoolean("emergency.broadcast-warning", true))) {
+            return;
+        }
         String broadcastMsg = configManager.getLangMessage("emergency.broadcast-warning",
                 "&c⚠ &6Warning: &fServer performance critical. Cleanup in progress...");
         for (Player player : Bukkit.getOnlinePlayers()) {
@@ -580,6 +825,74 @@ public class PerformanceOptimizer {
         }
     }
 
+    private long getCleanupBudgetNanos() {
+        return Math.max(100_000L, activeConfig.getLong("cleanup.tick-budget-nanos", 2_000_000L));
+    }
+
+    private int getCleanupMaxRemovalsPerTick() {
+        return Math.max(1, activeConfig.getInt("cleanup.max-removals-per-tick", 250));
+    }
+
+    /**
+     * ENTITY-ZÄHLUNG STARTEN (höchstens eine gleichzeitig)
+     * @return false, wenn bereits eine Zählung läuft
+     */
+    public boolean startEntityCensus(Consumer<EntityCensus.Report> callback) {
+        if (activeCensus != null && !activeCensus.isFinished()) {
+            return false;
+        }
+        activeCensus = new EntityCensus(plugin, callback).start();
+        return true;
+    }
+
+    public EntityCensus getActiveCensus() {
+        return activeCensus;
+    }
+
+    public boolean isCleanupRunning() {
+        return activeCleanupJob != null && !activeCleanupJob.isFinished();
+    }
+
+    public CleanupJob getActiveCleanupJob() {
+        return activeCleanupJob;
+    }
+
+    public EntityRegistry getEntityRegistry() {
+        return entityRegistry;
+    }
+
+    public PlayerDistanceManager getPlayerDistanceManager() {
+        return playerDistanceManager;
+    }
+
+    public ServerConfigWriter getServerConfigWriter() {
+        return serverConfigWriter;
+    }
+
+    public PluginCostTracker getPluginCostTracker() {
+        return pluginCostTracker;
+    }
+
+    public StallWatchdog getStallWatchdog() {
+        return stallWatchdog;
+    }
+
+    public TickSampler getTickSampler() {
+        return tickSampler;
+    }
+
+    public EmergencyLadder getEmergencyLadder() {
+        return emergencyLadder;
+    }
+
+    public ChunkEntityCaps getChunkEntityCaps() {
+        return chunkEntityCaps;
+    }
+
+    public ExpiryQueue getExpiryQueue() {
+        return expiryQueue;
+    }
+
     /**
      * MANUELLES CLEANUP AUSFÜHREN
      */
@@ -587,6 +900,10 @@ public class PerformanceOptimizer {
         runIntelligentCleanup();
     }
 
+    public void forceCleanup(CommandSender requester) {
+        runIntelligentCleanup(requester);
+    }
+
     /**
      * ALLE TIMERS STOPPEN
      */
@@ -599,48 +916,31 @@ public class PerformanceOptimizer {
         }
         if (lazyChunkManager != null) {
             lazyChunkManager.stop();
+            lazyChunkManager.setEmergencyDistanceCap(0);
         }
-        stopAdaptiveCleanupTimer();
-    }
-
-    /**
-     * HELFER-METHODEN
-     */
-    private boolean setPropertyIfDifferent(Properties props, String key, String newValue) {
-        String oldValue = props.getProperty(key);
-        if (!newValue.equals(oldValue)) {
-            props.setProperty(key, newValue);
-            return true;
+        emergencyLadder.reset();
+        stallWatchdog.stop();
+        pluginCostTracker.stop();
+        playerDistanceManager.stop();
+        if (entityRegistryTask != null) {
+            entityRegistryTask.cancel();
+            entityRegistryTask = null;
+            HandlerList.unregisterAll(entityRegistry);
+            entityRegistry.clear();
         }
-        return false;
-    }
-
-    private boolean setYamlIfDifferent(YamlConfiguration yaml, String path, Object defaultValue) {
-        Object currentValue = yaml.get(path);
-        if (currentValue == null || !currentValue.equals(defaultValue)) {
-            yaml.set(path, defaultValue);
-            return true;
+        if (expiryQueueTask != null) {
+            expiryQueueTask.cancel();
+            expiryQueueTask = null;
+            HandlerList.unregisterAll(expiryQueue);
+            expiryQueue.clear();
         }
-        return false;
-    }
-
-    private void createBackup(File originalFile) {
-        try {
-            File backupFile = new File(originalFile.getParentFile(),
-                    originalFile.getName() + ".backup-" + System.currentTimeMillis());
-
-            try (InputStream in = new FileInputStream(originalFile);
-                 OutputStream out = new FileOutputStream(backupFile)) {
-                byte[] buffer = new byte[1024];
-                int length;
-                while ((length = in.read(buffer)) > 0) {
-                    out.write(buffer, 0, length);
-                }
-            }
-
-        } catch (IOException e) {
-            plugin.getLogger().warning("Could not create backup for " + originalFile.getName() + ": " + e.getMessage());
+        if (activeCensus != null && !activeCensus.isSnapshotDone()) {
+            activeCensus.cancel();
+        }
+        if (isCleanupRunning()) {
+            activeCleanupJob.abort();
         }
+        stopAdaptiveCleanupTimer();
     }
 
     /**
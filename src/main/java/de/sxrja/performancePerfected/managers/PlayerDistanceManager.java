@@ -0,0 +1,276 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+
+/**
+ * View- und Simulation-Distance pro Spieler statt eines globalen Werts.
+ * Ein PI-Regler (wie beim Lazy-Radius) leitet aus der MSPT ein Budget zwischen Minimum und
+ * Welt-Distanz ab; davon gehen Abzüge für Spieler in Menschenmengen und für stillstehende
+ * Spieler ab. Verkleinert wird sofort, vergrößert nur schrittweise - und gesetzt wird nur bei
+ * Änderung, da jeder Aufruf Chunks neu sendet.
+ */
+public class PlayerDistanceManager implements Listener {
+
+    private static final int GROW_COOLDOWN = 5;  // Auswertungen zwischen zwei Vergrößerungen pro Spieler
+    private static final double MOVE_EPSILON_SQUARED = 1.0;
+
+    private final JavaPlugin plugin;
+    private final TickSampler tickSampler;
+    private AdaptiveDistanceController controller = null;
+    private BukkitRunnable task = null;
+
+    private final Map<UUID, PlayerState> states = new HashMap<>();
+
+    // Einstellungen (player-distance.*)
+    private int minViewDistance = 4;
+    private int minSimulationDistance = 3;
+    private double targetMspt = 45.0;
+    private double hysteresisMspt = 5.0;
+    private String msptMetric = "avg:5s";
+    private int crowdRadius = 48;
+    private int crowdPlayers = 8;
+    private int crowdPenalty = 2;
+    private int idleSeconds = 30;
+    private int idlePenalty = 2;
+
+    private int budget = 32;
+    private int reducedPlayers = 0;
+    private long distanceChanges = 0;
+
+    public PlayerDistanceManager(JavaPlugin plugin, TickSampler tickSampler) {
+        this.plugin = plugin;
+        this.tickSampler = tickSampler;
+    }
+
+    public void start(int minViewDistance, int minSimulationDistance, double targetMspt, double hysteresisMspt,
+                      String msptMetric, int crowdRadius, int crowdPlayers, int crowdPenalty,
+                      int idleSeconds, int idlePenalty) {
+        stop();
+
+        this.minViewDistance = Math.max(2, Math.min(32, minViewDistance));
+        this.minSimulationDistance = Math.max(2, Math.min(32, minSimulationDistance));
+        this.targetMspt = targetMspt;
+        this.hysteresisMspt = Math.max(0, hysteresisMspt);
+        this.msptMetric = msptMetric;
+        this.crowdRadius = Math.max(1, crowdRadius);
+        this.crowdPlayers = Math.max(1, crowdPlayers);
+        this.crowdPenalty = Math.max(0, crowdPenalty);
+        this.idleSeconds = Math.max(1, idleSeconds);
+        this.idlePenalty = Math.max(0, idlePenalty);
+
+        this.budget = 32;
+        this.controller = new AdaptiveDistanceController(budget);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                evaluate();
+            }
+        };
+        task.runTaskTimer(plugin, 20L, 20L);
+    }
+
+    /**
+     * STOPPEN: alle Spieler zurück auf die Distanz ihrer Welt
+     */
+    public void stop() {
+        if (task == null) return;
+        task.cancel();
+        task = null;
+        HandlerList.unregisterAll(this);
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (states.containsKey(player.getUniqueId())) {
+                World world = player.getWorld();
+                setDistances(player, world.getViewDistance(), world.getSimulationDistance());
+            }
+        }
+        states.clear();
+        reducedPlayers = 0;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        states.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * EINE AUSWERTUNG (1x pro Sekunde)
+     */
+    private void evaluate() {
+        Collection<? extends Player> players = Bukkit.getOnlinePlayers();
+        if (players.isEmpty()) return;
+
+        int maxView = 2;
+        for (World world : Bukkit.getWorlds()) {
+            maxView = Math.max(maxView, world.getViewDistance());
+        }
+        budget = controller.update(tickSampler.getMspt(msptMetric), targetMspt, hysteresisMspt,
+                minViewDistance, maxView);
+
+        // Spieler in Zellen von crowdRadius einsortieren - Nachbarn zählen kostet dann nur 3x3 Zellen
+        Map<Long, List<Location>> grid = new HashMap<>();
+        Map<UUID, Location> positions = new HashMap<>();
+        for (Player player : players) {
+            Location location = player.getLocation();
+            positions.put(player.getUniqueId(), location);
+            grid.computeIfAbsent(cellKey(location.getWorld(), cellOf(location.getBlockX()), cellOf(location.getBlockZ())),
+                    key -> new ArrayList<>()).add(location);
+        }
+
+        int reduced = 0;
+        for (Player player : players) {
+            Location location = positions.get(player.getUniqueId());
+            World world = location.getWorld();
+            if (player.hasPermission("performanceperfected.bypass")) {
+                if (states.remove(player.getUniqueId()) != null) {
+                    setDistances(player, world.getViewDistance(), world.getSimulationDistance());
+                }
+                continue;
+            }
+
+            PlayerState state = states.computeIfAbsent(player.getUniqueId(),
+                    uid -> new PlayerState(player.getViewDistance(), player.getSimulationDistance()));
+            state.updateMovement(location);
+
+            int worldView = world.getViewDistance();
+            int worldSimulation = world.getSimulationDistance();
+
+            int target = Math.min(worldView, budget);
+            if (countNeighbours(grid, location) >= crowdPlayers) {
+                target -= crowdPenalty;
+            }
+            if (state.stillSeconds >= idleSeconds) {
+                target -= idlePenalty;
+            }
+            target = Math.max(Math.min(minViewDistance, worldView), target);
+
+            // Kleiner sofort, größer nur in Einzelschritten mit Cooldown
+            int view = state.view;
+            if (state.growCooldown > 0) {
+                state.growCooldown--;
+            }
+            if (target < view) {
+                view = target;
+                state.growCooldown = GROW_COOLDOWN;
+            } else if (target > view && state.growCooldown == 0) {
+                view++;
+                state.growCooldown = GROW_COOLDOWN;
+            }
+            view = Math.min(view, worldView);
+
+            // Simulation schrumpft um so viel wie die Sichtweite, nie unter das Minimum
+            int simulation = Math.max(Math.min(minSimulationDistance, worldSimulation),
+                    Math.min(worldSimulation, worldSimulation - (worldView - view)));
+
+            if (view != state.view || simulation != state.simulation) {
+                state.view = view;
+                state.simulation = simulation;
+                setDistances(player, view, simulation);
+            }
+            if (view < worldView) {
+                reduced++;
+            }
+        }
+        reducedPlayers = reduced;
+    }
+
+    private void setDistances(Player player, int view, int simulation) {
+        if (player.getViewDistance() != view) {
+            player.setViewDistance(view);
+            distanceChanges++;
+        }
+        if (player.getSimulationDistance() != simulation) {
+            player.setSimulationDistance(simulation);
+        }
+    }
+
+    // Andere Spieler im Umkreis von crowdRadius (gleiche Welt)
+    private int countNeighbours(Map<Long, List<Location>> grid, Location location) {
+        int cx = cellOf(location.getBlockX());
+        int cz = cellOf(location.getBlockZ());
+        double radiusSquared = (double) crowdRadius * crowdRadius;
+        int count = 0;
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                List<Location> cell = grid.get(cellKey(location.getWorld(), cx + dx, cz + dz));
+                if (cell == null) continue;
+                for (Location other : cell) {
+                    if (other != location && other.distanceSquared(location) <= radiusSquared) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int cellOf(int block) {
+        return Math.floorDiv(block, crowdRadius);
+    }
+
+    private static long cellKey(World world, int cellX, int cellZ) {
+        long hash = world.getUID().hashCode();
+        return (hash * 31 + cellX) * 1_000_003L + cellZ;
+    }
+
+    public boolean isActive() {
+        return task != null;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getReducedPlayers() {
+        return reducedPlayers;
+    }
+
+    public long getDistanceChanges() {
+        return distanceChanges;
+    }
+
+    // Zustand eines Spielers zwischen zwei Auswertungen
+    private static final class PlayerState {
+        private int view;
+        private int simulation;
+        private int growCooldown = 0;
+        private int stillSeconds = 0;
+        private World lastWorld = null;
+        private double lastX, lastY, lastZ;
+
+        PlayerState(int view, int simulation) {
+            this.view = view;
+            this.simulation = simulation;
+        }
+
+        void updateMovement(Location location) {
+            if (location.getWorld() == lastWorld) {
+                double dx = location.getX() - lastX;
+                double dy = location.getY() - lastY;
+                double dz = location.getZ() - lastZ;
+                stillSeconds = dx * dx + dy * dy + dz * dz < MOVE_EPSILON_SQUARED ? stillSeconds + 1 : 0;
+            } else {
+                stillSeconds = 0;
+            }
+            lastWorld = location.getWorld();
+            lastX = location.getX();
+            lastY = location.getY();
+            lastZ = location.getZ();
+        }
+    }
+}
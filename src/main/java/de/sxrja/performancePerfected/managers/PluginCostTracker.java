@@ -0,0 +1,473 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Misst, wie viel Tick-Zeit jedes Plugin in Event-Listenern und wiederholten Tasks verbraucht.
+ * Registrierte Listener werden durch eine zeitmessende Hülle ersetzt, bei wiederholten Sync-Tasks
+ * wird per Reflection das Runnable im Scheduler-Task getauscht - nur bei bekannten CraftTask-Layouts,
+ * sonst werden nur Listener gemessen. Gezählt wird Eigenzeit: Events, die ein Listener oder Task
+ * selbst auslöst, werden von seiner Zeit abgezogen und den Listenern zugerechnet, die sie behandeln.
+ * Im Hot-Path wird nichts alloziert - nur zwei nanoTime()-Aufrufe und Zähler in vorab angelegten Feldern.
+ */
+public class PluginCostTracker {
+
+    // Alle 30 Sekunden neu registrierte Listener und Tasks nachträglich einhüllen
+    private static final long RESCAN_TICKS = 600L;
+
+    // Geprüfte CraftTask-Layouts: Minecraft-Version (Präfix) -> Feldnamen {Runnable, Consumer, Periode}.
+    // Andere Versionen werden nicht angefasst, bis ihr Layout hier eingetragen ist.
+    private static final Map<String, String[]> CRAFT_TASK_FIELDS = new LinkedHashMap<>();
+
+    static {
+        CRAFT_TASK_FIELDS.put("1.20.", new String[]{"rTask", "cTask", "period"});
+        CRAFT_TASK_FIELDS.put("1.21.", new String[]{"rTask", "cTask", "period"});
+    }
+
+    private final JavaPlugin plugin;
+    private final List<TimedListener> listeners = new ArrayList<>();
+    private final List<TimedTask> tasks = new ArrayList<>();
+    private BukkitRunnable rescanTask = null;
+    private boolean active = false;
+    private int startTick = 0;
+
+    // Scheduler-Interna (CraftTask), null = Task-Messung nicht verfügbar
+    private Field runnableField = null;
+    private Field consumerField = null;
+    private Field periodField = null;
+    private boolean schedulerChecked = false;
+
+    // Verschachtelte Aufrufe (nur Main-Thread): Zeit der Kind-Aufrufe, die der Aufrufer abziehen muss
+    private static long nestedNanos = 0;
+
+    public PluginCostTracker(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        if (active) return;
+        active = true;
+        startTick = Bukkit.getCurrentTick();
+
+        wrapListeners();
+        wrapTasks();
+
+        rescanTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                wrapListeners();
+                wrapTasks();
+            }
+        };
+        rescanTask.runTaskTimer(plugin, RESCAN_TICKS, RESCAN_TICKS);
+        plugin.getLogger().info("✓ Plugin cost tracking active (" + listeners.size() + " listeners, "
+                + tasks.size() + " repeating tasks)");
+    }
+
+    /**
+     * ALLE HÜLLEN ENTFERNEN - Listener und Tasks laufen danach wieder ungemessen
+     */
+    public void stop() {
+        if (!active) return;
+        active = false;
+        if (rescanTask != null) {
+            rescanTask.cancel();
+            rescanTask = null;
+        }
+
+        for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+            RegisteredListener[] registered = handlerList.getRegisteredListeners();
+            if (!containsTimed(registered)) continue;
+
+            // Komplett neu registrieren, damit die Reihenfolge innerhalb einer Priorität erhalten bleibt
+            for (RegisteredListener listener : registered) {
+                handlerList.unregister(listener);
+            }
+            for (RegisteredListener listener : registered) {
+                handlerList.register(listener instanceof TimedListener ? ((TimedListener) listener).delegate : listener);
+            }
+        }
+
+        for (TimedTask task : tasks) {
+            restoreTask(task);
+        }
+        listeners.clear();
+        tasks.clear();
+    }
+
+    public void reset() {
+        for (TimedListener listener : listeners) {
+            Arrays.fill(listener.nanos, 0);
+            Arrays.fill(listener.calls, 0);
+        }
+        for (TimedTask task : tasks) {
+            task.nanos = 0;
+            task.calls = 0;
+        }
+        startTick = Bukkit.getCurrentTick();
+    }
+
+    private void wrapListeners() {
+        // Deaktivierte Plugins wurden bereits aus den HandlerLists entfernt
+        listeners.removeIf(listener -> !listener.getPlugin().isEnabled());
+
+        for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+            RegisteredListener[] registered = handlerList.getRegisteredListeners();
+            boolean needsWrap = false;
+            for (RegisteredListener listener : registered) {
+                if (!(listener instanceof TimedListener)) {
+                    needsWrap = true;
+                    break;
+                }
+            }
+            if (!needsWrap) continue;
+
+            for (RegisteredListener listener : registered) {
+                handlerList.unregister(listener);
+            }
+            for (RegisteredListener listener : registered) {
+                if (listener instanceof TimedListener) {
+                    handlerList.register(listener);
+                    continue;
+                }
+                TimedListener timed = new TimedListener(listener);
+                listeners.add(timed);
+                handlerList.register(timed);
+            }
+        }
+    }
+
+    private static boolean containsTimed(RegisteredListener[] registered) {
+        for (RegisteredListener listener : registered) {
+            if (listener instanceof TimedListener) return true;
+        }
+        return false;
+    }
+
+    /**
+     * WIEDERHOLTE SYNC-TASKS EINHÜLLEN (CraftTask-Felder laut CRAFT_TASK_FIELDS per Reflection)
+     */
+    private void wrapTasks() {
+        if (!resolveSchedulerFields()) return;
+
+        for (BukkitTask task : Bukkit.getScheduler().getPendingTasks()) {
+            if (!task.isSync() || task.isCancelled()) continue;
+            try {
+                if (periodField != null && periodField.getLong(task) <= 0) continue;
+
+                Object runnable = runnableField != null ? runnableField.get(task) : null;
+                Object consumer = consumerField != null ? consumerField.get(task) : null;
+                if (runnable instanceof TimedTask || consumer instanceof TimedTask) continue;
+
+                TimedTask timed;
+                if (runnable instanceof Runnable) {
+                    timed = new TimedTask(task, (Runnable) runnable, null);
+                    runnableField.set(task, timed);
+                } else if (consumer instanceof Consumer) {
+                    @SuppressWarnings("unchecked")
+                    Consumer<BukkitTask> original = (Consumer<BukkitTask>) consumer;
+                    timed = new TimedTask(task, null, original);
+                    consumerField.set(task, timed);
+                } else {
+                    continue;
+                }
+                tasks.add(timed);
+            } catch (IllegalAccessException | RuntimeException e) {
+                disableTaskTiming(e.toString());
+                return;
+            }
+        }
+
+        // Beendete Tasks nicht ewig festhalten
+        tasks.removeIf(task -> task.task.isCancelled());
+    }
+
+    private void restoreTask(TimedTask timed) {
+        try {
+            if (timed.runnable != null && runnableField != null && runnableField.get(timed.task) == timed) {
+                runnableField.set(timed.task, timed.runnable);
+            } else if (timed.consumer != null && consumerField != null && consumerField.get(timed.task) == timed) {
+                consumerField.set(timed.task, timed.consumer);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Task läuft ohnehin weiter, nur eben mit Messhülle
+        }
+    }
+
+    private boolean resolveSchedulerFields() {
+        if (schedulerChecked) {
+            return runnableField != null || consumerField != null;
+        }
+        schedulerChecked = true;
+
+        List<BukkitTask> pending = Bukkit.getScheduler().getPendingTasks();
+        if (pending.isEmpty()) {
+            schedulerChecked = false; // Beim nächsten Scan erneut versuchen
+            return false;
+        }
+
+        String version = Bukkit.getBukkitVersion();
+        String[] names = null;
+        for (Map.Entry<String, String[]> entry : CRAFT_TASK_FIELDS.entrySet()) {
+            if (version.startsWith(entry.getKey())) {
+                names = entry.getValue();
+            }
+        }
+        Class<?> craftTask = findCraftTask(pending.get(0).getClass());
+        if (names == null || craftTask == null) {
+            return disableTaskTiming("unknown scheduler layout for " + version);
+        }
+
+        try {
+            Field runnable = field(craftTask, names[0], Runnable.class);
+            Field consumer = field(craftTask, names[1], Consumer.class);
+            Field period = field(craftTask, names[2], long.class);
+            runnableField = runnable;
+            consumerField = consumer;
+            periodField = period;
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return disableTaskTiming(e.toString());
+        }
+    }
+
+    // Die Klasse CraftTask selbst (Sync-Tasks sind Unterklassen davon)
+    private static Class<?> findCraftTask(Class<?> type) {
+        for (; type != null && type != Object.class; type = type.getSuperclass()) {
+            if (type.getSimpleName().equals("CraftTask")) return type;
+        }
+        return null;
+    }
+
+    // Feld exakt nach Name und Typ - passt eins nicht, ist das Layout ein anderes
+    private static Field field(Class<?> type, String name, Class<?> expected) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        if (field.getType() != expected || Modifier.isStatic(field.getModifiers())) {
+            throw new NoSuchFieldException(type.getSimpleName() + "." + name + " is not a " + expected.getSimpleName());
+        }
+        field.setAccessible(true);
+        return field;
+    }
+
+    private boolean disableTaskTiming(String reason) {
+        runnableField = null;
+        consumerField = null;
+        periodField = null;
+        plugin.getLogger().warning("Scheduler task timing not supported on this server (" + reason
+                + ") - measuring listeners only");
+        return false;
+    }
+
+    /**
+     * RANGLISTE: Kosten pro Plugin und Event-Typ bzw. Task, teuerste zuerst
+     */
+    public List<Cost> getCosts() {
+        Map<String, Cost> byKey = new HashMap<>();
+        for (TimedListener listener : listeners) {
+            String owner = listener.getPlugin().getName();
+            for (int i = 0; i < listener.types.length && listener.types[i] != null; i++) {
+                if (listener.calls[i] == 0) continue;
+                String label = listener.types[i] == OtherEvents.class ? "other events" : listener.types[i].getSimpleName();
+                byKey.computeIfAbsent(owner + "|" + label, key -> new Cost(owner, label))
+                        .add(listener.nanos[i], listener.calls[i]);
+            }
+        }
+        for (TimedTask task : tasks) {
+            if (task.calls == 0) continue;
+            String owner = task.task.getOwner().getName();
+            String label = "task " + task.label;
+            byKey.computeIfAbsent(owner + "|" + label, key -> new Cost(owner, label)).add(task.nanos, task.calls);
+        }
+
+        List<Cost> costs = new ArrayList<>(byKey.values());
+        costs.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return costs;
+    }
+
+    /**
+     * Summe pro Plugin, teuerste zuerst
+     */
+    public List<Cost> getPluginTotals() {
+        Map<String, Cost> byPlugin = new HashMap<>();
+        for (Cost cost : getCosts()) {
+            byPlugin.computeIfAbsent(cost.plugin, key -> new Cost(key, "total")).add(cost.nanos, cost.calls);
+        }
+        List<Cost> totals = new ArrayList<>(byPlugin.values());
+        totals.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return totals;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getMeasuredTicks() {
+        return Math.max(1, Bukkit.getCurrentTick() - startTick);
+    }
+
+    public int getWrappedListeners() {
+        return listeners.size();
+    }
+
+    public int getWrappedTasks() {
+        return tasks.size();
+    }
+
+    // Eigenzeit messen: Kind-Aufrufe (verschachtelte Events) abziehen
+    private static long beginCall() {
+        long outerNested = nestedNanos;
+        nestedNanos = 0;
+        return outerNested;
+    }
+
+    private static long endCall(long startNanos, long outerNested) {
+        long elapsed = System.nanoTime() - startNanos;
+        long self = elapsed - nestedNanos;
+        nestedNanos = outerNested + elapsed;
+        return self;
+    }
+
+    // Platzhalter für Event-Typen jenseits der festen Slots
+    private static final class OtherEvents {
+    }
+
+    /**
+     * Messhülle um einen registrierten Listener; zählt bis zu MAX_TYPES Event-Klassen getrennt
+     * (eine HandlerList bedient auch Unterklassen, z.B. ItemSpawnEvent über EntitySpawnEvent)
+     */
+    private static final class TimedListener extends RegisteredListener {
+        private static final int MAX_TYPES = 4;
+
+        private final RegisteredListener delegate;
+        private final Class<?>[] types = new Class<?>[MAX_TYPES];
+        private final long[] nanos = new long[MAX_TYPES];
+        private final long[] calls = new long[MAX_TYPES];
+
+        TimedListener(RegisteredListener delegate) {
+            super(delegate.getListener(), (listener, event) -> delegate.callEvent(event),
+                    delegate.getPriority(), delegate.getPlugin(), delegate.isIgnoringCancelled());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void callEvent(Event event) throws EventException {
+            // Async-Events kosten keine Tick-Zeit und würden die Zähler nur zerschießen
+            if (event.isAsynchronous()) {
+                delegate.callEvent(event);
+                return;
+            }
+
+            long outerNested = beginCall();
+            long start = System.nanoTime();
+            try {
+                delegate.callEvent(event);
+            } finally {
+                int slot = slotOf(event.getClass());
+                nanos[slot] += endCall(start, outerNested);
+                calls[slot]++;
+            }
+        }
+
+        private int slotOf(Class<?> type) {
+            for (int i = 0; i < MAX_TYPES - 1; i++) {
+                if (types[i] == type) return i;
+                if (types[i] == null) {
+                    types[i] = type;
+                    return i;
+                }
+            }
+            types[MAX_TYPES - 1] = OtherEvents.class;
+            return MAX_TYPES - 1;
+        }
+    }
+
+    /**
+     * Messhülle um das Runnable bzw. den Consumer eines wiederholten Tasks
+     */
+    private static final class TimedTask implements Runnable, Consumer<BukkitTask> {
+        private final BukkitTask task;
+        private final Runnable runnable;
+        private final Consumer<BukkitTask> consumer;
+        private final String label;
+        private long nanos = 0;
+        private long calls = 0;
+
+        TimedTask(BukkitTask task, Runnable runnable, Consumer<BukkitTask> consumer) {
+            this.task = task;
+            this.runnable = runnable;
+            this.consumer = consumer;
+            this.label = labelOf(runnable != null ? runnable.getClass() : consumer.getClass());
+        }
+
+        @Override
+        public void run() {
+            long outerNested = beginCall();
+            long start = System.nanoTime();
+            try {
+                runnable.run();
+            } finally {
+                nanos += endCall(start, outerNested);
+                calls++;
+            }
+        }
+
+        @Override
+        public void accept(BukkitTask bukkitTask) {
+            long outerNested = beginCall();
+            long start = System.nanoTime();
+            try {
+                consumer.accept(bukkitTask);
+            } finally {
+                nanos += endCall(start, outerNested);
+                calls++;
+            }
+        }
+
+        // Lambdas heißen z.B. "MyPlugin$$Lambda/0x0000..." - nur die umgebende Klasse zeigen
+        private static String labelOf(Class<?> type) {
+            String name = type.getName();
+            int lambda = name.indexOf("$$Lambda");
+            if (lambda >= 0) {
+                name = name.substring(0, lambda) + " (lambda)";
+            }
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    }
+
+    /**
+     * Kosten eines Plugins für einen Event-Typ oder Task
+     */
+    public static class Cost {
+        private final String plugin;
+        private final String label;
+        private long nanos = 0;
+        private long calls = 0;
+
+        Cost(String plugin, String label) {
+            this.plugin = plugin;
+            this.label = label;
+        }
+
+        void add(long nanos, long calls) {
+            this.nanos += nanos;
+            this.calls += calls;
+        }
+
+        public String getPlugin() { return plugin; }
+        public String getLabel() { return label; }
+        public long getNanos() { return nanos; }
+        public long getCalls() { return calls; }
+    }
+}
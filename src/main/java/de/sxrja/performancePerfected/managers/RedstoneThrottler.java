@@ -0,0 +1,205 @@
+package de.sxrja.performancePerfected.managers;
+
+import de.sxrja.performancePerfected.utils.ChunkKey;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.AnaloguePowerable;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Lightable;
+import org.bukkit.block.data.Openable;
+import org.bukkit.block.data.Powerable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockRedstoneEvent;
+
+import java.util.*;
+
+/**
+ * Redstone-Drosselung für Lazy Chunks (lazy-chunks.skip-redstone).
+ * Updates in Chunks mit hohem Multiplier laufen nur noch gebündelt in einem Tick pro Fenster
+ * von multiplier Ticks - Spieler in der Nähe (Multiplier 1) bekommen weiterhin Vanilla-Verhalten.
+ * Gedrosselte Updates gehen nicht verloren: pro Chunk wird der zuletzt gewünschte Strom gemerkt
+ * und beim nächsten Fenster (oder sobald der Chunk aktiv wird) auf den Block angewendet.
+ */
+public class RedstoneThrottler implements Listener {
+
+    // Ab diesem Multiplier wird Redstone gedrosselt (wie früher slowRedstone)
+    private static final int MIN_MULTIPLIER = 4;
+
+    private final LazyChunkManager lazyChunkManager;
+    // Welt -> Chunk-Key -> Block-Position -> zuletzt gewünschter Strom
+    private final Map<UUID, Map<Long, Map<Long, Integer>>> pending = new HashMap<>();
+    private long throttledUpdates = 0;
+    private long replayedUpdates = 0;
+
+    public RedstoneThrottler(LazyChunkManager lazyChunkManager) {
+        this.lazyChunkManager = lazyChunkManager;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockRedstone(BlockRedstoneEvent event) {
+        if (event.getOldCurrent() == event.getNewCurrent()) return;
+
+        Block block = event.getBlock();
+        ChunkStateTable table = lazyChunkManager.findChunkTable(block.getWorld());
+        if (table == null) return;
+
+        long chunkKey = ChunkKey.pack(block.getX() >> 4, block.getZ() >> 4);
+        int slot = table.indexOf(chunkKey);
+        if (slot < 0 || table.multiplierAt(slot) < MIN_MULTIPLIER) return;
+
+        Map<Long, Map<Long, Integer>> chunks = pending.get(block.getWorld().getUID());
+        Map<Long, Integer> blocks = chunks == null ? null : chunks.get(chunkKey);
+
+        if (table.allowRedstoneUpdate(slot, Bukkit.getCurrentTick())) {
+            // Echtes Update im Fenster ersetzt einen gemerkten Stand
+            if (blocks != null) {
+                blocks.remove(blockKey(block.getX(), block.getY(), block.getZ()));
+            }
+            return;
+        }
+
+        // Update aufschieben: Signal bleibt bis zum nächsten Fenster auf dem alten Stand
+        int desired = event.getNewCurrent();
+        event.setNewCurrent(event.getOldCurrent());
+        if (blocks == null) {
+            blocks = pending.computeIfAbsent(block.getWorld().getUID(), uid -> new HashMap<>())
+                    .computeIfAbsent(chunkKey, key -> new HashMap<>());
+        }
+        blocks.put(blockKey(block.getX(), block.getY(), block.getZ()), desired);
+        throttledUpdates++;
+    }
+
+    /**
+     * AUFGESCHOBENE UPDATES NACHHOLEN (1x pro Tick aus dem LazyChunkManager)
+     * Läuft nur über Chunks mit gemerkten Updates; deren Fenster wird dabei geöffnet.
+     */
+    public void tick() {
+        if (pending.isEmpty()) return;
+        int currentTick = Bukkit.getCurrentTick();
+
+        Iterator<Map.Entry<UUID, Map<Long, Map<Long, Integer>>>> worlds = pending.entrySet().iterator();
+        while (worlds.hasNext()) {
+            Map.Entry<UUID, Map<Long, Map<Long, Integer>>> worldEntry = worlds.next();
+            World world = Bukkit.getWorld(worldEntry.getKey());
+            ChunkStateTable table = world == null ? null : lazyChunkManager.findChunkTable(world);
+            if (table == null) {
+                worlds.remove();
+                continue;
+            }
+
+            Iterator<Map.Entry<Long, Map<Long, Integer>>> chunks = worldEntry.getValue().entrySet().iterator();
+            while (chunks.hasNext()) {
+                Map.Entry<Long, Map<Long, Integer>> chunkEntry = chunks.next();
+                int slot = table.indexOf(chunkEntry.getKey());
+                if (slot < 0) {
+                    chunks.remove(); // Chunk entladen
+                    continue;
+                }
+                if (table.multiplierAt(slot) >= MIN_MULTIPLIER && !table.allowRedstoneUpdate(slot, currentTick)) {
+                    continue;
+                }
+                replay(world, chunkEntry.getValue());
+                chunks.remove();
+            }
+            if (worldEntry.getValue().isEmpty()) {
+                worlds.remove();
+            }
+        }
+    }
+
+    /**
+     * Gewünschten Strom direkt auf den Block setzen (mit Physik, damit Nachbarn mitziehen)
+     */
+    private void replay(World world, Map<Long, Integer> blocks) {
+        for (Map.Entry<Long, Integer> entry : blocks.entrySet()) {
+            long key = entry.getKey();
+            Block block = world.getBlockAt(blockX(key), blockY(key), blockZ(key));
+            int current = entry.getValue();
+            boolean on = current > 0;
+
+            BlockData data = block.getBlockData();
+            boolean changed = false;
+            if (data instanceof AnaloguePowerable) {
+                AnaloguePowerable powerable = (AnaloguePowerable) data;
+                int power = Math.min(powerable.getMaximumPower(), current);
+                if (powerable.getPower() != power) {
+                    powerable.setPower(power);
+                    changed = true;
+                }
+            }
+            if (data instanceof Powerable && ((Powerable) data).isPowered() != on) {
+                ((Powerable) data).setPowered(on);
+                changed = true;
+            }
+            if (data instanceof Openable && ((Openable) data).isOpen() != on) {
+                ((Openable) data).setOpen(on);
+                changed = true;
+            }
+            if (data instanceof Lightable && ((Lightable) data).isLit() != on) {
+                ((Lightable) data).setLit(on);
+                changed = true;
+            }
+            if (changed) {
+                block.setBlockData(data, true);
+                replayedUpdates++;
+            }
+        }
+    }
+
+    /**
+     * Vor dem Entladen nachholen, sonst landet der alte Stand auf der Platte
+     */
+    public void onChunkUnload(World world, long chunkKey) {
+        Map<Long, Map<Long, Integer>> chunks = pending.get(world.getUID());
+        if (chunks == null) return;
+        Map<Long, Integer> blocks = chunks.remove(chunkKey);
+        if (blocks != null) {
+            replay(world, blocks);
+        }
+    }
+
+    /**
+     * ALLES SOFORT NACHHOLEN (Stop / Deaktivierung)
+     */
+    public void flush() {
+        for (Map.Entry<UUID, Map<Long, Map<Long, Integer>>> worldEntry : pending.entrySet()) {
+            World world = Bukkit.getWorld(worldEntry.getKey());
+            if (world == null) continue;
+            for (Map.Entry<Long, Map<Long, Integer>> chunkEntry : worldEntry.getValue().entrySet()) {
+                long chunkKey = chunkEntry.getKey();
+                if (world.isChunkLoaded(ChunkKey.x(chunkKey), ChunkKey.z(chunkKey))) {
+                    replay(world, chunkEntry.getValue());
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    // Block-Position als long (x/z je 26 Bit, y 12 Bit - wie BlockPos#asLong)
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int blockX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int blockY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    private static int blockZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    public long getThrottledUpdates() {
+        return throttledUpdates;
+    }
+
+    public long getReplayedUpdates() {
+        return replayedUpdates;
+    }
+}
@@ -0,0 +1,259 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Schreibt die Server-Configs (server.properties, paper/spigot/bukkit.yml) nach dem Muster
+ * "erst planen, dann anwenden": Der Main-Thread legt nur fest, welche Werte wo stehen sollen.
+ * Lesen, Vergleichen und Schreiben passiert im Async-Pool; unveränderte Dateien werden gar nicht
+ * angefasst, geänderte über Temp-Datei + fsync + Rename ersetzt (nie halb geschriebene Dateien).
+ */
+public class ServerConfigWriter {
+
+    private final JavaPlugin plugin;
+    private final BackupStore backupStore;
+    // Ein Lauf nach dem anderen - ein schneller zweiter Reload plant auf dem Ergebnis des ersten
+    private final Object applyLock = new Object();
+
+    public ServerConfigWriter(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.backupStore = new BackupStore(plugin.getDataFolder(), plugin.getServer().getWorldContainer());
+    }
+
+    /**
+     * PLAN ANWENDEN (async), Ergebnis kommt auf dem Main-Thread zurück
+     */
+    public void applyAsync(Plan plan, Consumer<Result> onFinish) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Result result;
+                synchronized (applyLock) {
+                    result = apply(plan);
+                }
+                if (!plugin.isEnabled()) return;
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        onFinish.accept(result);
+                    }
+                }.runTask(plugin);
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    /**
+     * BACKUP ZURÜCKSPIELEN (async, nie parallel zu einem laufenden Schreibvorgang)
+     * onFinish bekommt den Stand oder null + Fehlermeldung
+     */
+    public void restoreAsync(String file, int version, BiConsumer<BackupStore.Entry, String> onFinish) {
+        runAsync(() -> {
+            synchronized (applyLock) {
+                try {
+                    BackupStore.Entry entry = backupStore.restore(file, version);
+                    return () -> onFinish.accept(entry, null);
+                } catch (IOException | IllegalArgumentException e) {
+                    return () -> onFinish.accept(null, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * BACKUP-ÜBERSICHT (async gelesen) - null + Fehlermeldung, wenn der Index nicht lesbar ist
+     */
+    public void listBackupsAsync(BiConsumer<Map<String, List<BackupStore.Entry>>, String> onFinish) {
+        runAsync(() -> {
+            try {
+                Map<String, List<BackupStore.Entry>> history = backupStore.getHistory();
+                return () -> onFinish.accept(history, null);
+            } catch (IOException e) {
+                return () -> onFinish.accept(null, e.getMessage());
+            }
+        });
+    }
+
+    // Arbeit im Async-Pool, das zurückgegebene Runnable läuft danach auf dem Main-Thread
+    private void runAsync(Supplier<Runnable> work) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Runnable callback = work.get();
+                if (!plugin.isEnabled()) return;
+                Bukkit.getScheduler().runTask(plugin, callback);
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    private Result apply(Plan plan) {
+        Result result = new Result();
+        for (Target target : plan.targets) {
+            File file = target.file;
+            if (!file.exists()) {
+                result.missing.add(target.label);
+                continue;
+            }
+
+            try {
+                byte[] current = Files.readAllBytes(file.toPath());
+                List<String> changedKeys = new ArrayList<>();
+                byte[] updated = target.render(current, changedKeys);
+                if (updated == null) {
+                    result.unchanged.add(target.label);
+                    continue;
+                }
+
+                try {
+                    backupStore.backup(file);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Could not create backup for " + file.getName() + ": " + e.getMessage());
+                }
+                writeAtomically(file.toPath(), updated);
+                result.changed.put(target.label, changedKeys);
+            } catch (IOException | InvalidConfigurationException e) {
+                result.failed.put(target.label, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * ATOMAR SCHREIBEN: Temp-Datei im selben Ordner, fsync, dann per Rename ersetzen
+     */
+    static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path temp = dir.resolve(target.getFileName() + ".pp-tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // Ordner-Eintrag ebenfalls sichern (unter Windows nicht möglich - dann eben nicht)
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    public BackupStore getBackupStore() {
+        return backupStore;
+    }
+
+    /**
+     * PLAN: gewünschte Werte pro Datei (wird auf dem Main-Thread gebaut, danach nicht mehr verändert)
+     */
+    public static class Plan {
+        private final List<Target> targets = new ArrayList<>();
+
+        public Map<String, String> properties(File file, String label) {
+            Target target = new Target(file, label, true);
+            targets.add(target);
+            return target.values;
+        }
+
+        public Map<String, Object> yaml(File file, String label) {
+            Target target = new Target(file, label, false);
+            targets.add(target);
+            return target.yamlValues;
+        }
+    }
+
+    private static final class Target {
+        private final File file;
+        private final String label;
+        private final boolean properties;
+        private final Map<String, String> values = new LinkedHashMap<>();
+        private final Map<String, Object> yamlValues = new LinkedHashMap<>();
+
+        Target(File file, String label, boolean properties) {
+            this.file = file;
+            this.label = label;
+            this.properties = properties;
+        }
+
+        /**
+         * NEUER DATEIINHALT oder null, wenn schon alles stimmt (geänderte Schlüssel landen in changedKeys)
+         */
+        byte[] render(byte[] current, List<String> changedKeys) throws IOException, InvalidConfigurationException {
+            return properties ? renderProperties(current, changedKeys) : renderYaml(current, changedKeys);
+        }
+
+        private byte[] renderProperties(byte[] current, List<String> changedKeys) throws IOException {
+            Properties props = new Properties();
+            props.load(new ByteArrayInputStream(current));
+
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (!entry.getValue().equals(props.getProperty(entry.getKey()))) {
+                    props.setProperty(entry.getKey(), entry.getValue());
+                    changedKeys.add(entry.getKey());
+                }
+            }
+            if (changedKeys.isEmpty()) return null;
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(current.length + 256);
+            props.store(out, "Optimized by PerformancePerfected");
+            return out.toByteArray();
+        }
+
+        private byte[] renderYaml(byte[] current, List<String> changedKeys) throws InvalidConfigurationException {
+            YamlConfiguration yaml = new YamlConfiguration();
+            yaml.loadFromString(new String(current, StandardCharsets.UTF_8));
+
+            for (Map.Entry<String, Object> entry : yamlValues.entrySet()) {
+                if (!entry.getValue().equals(yaml.get(entry.getKey()))) {
+                    yaml.set(entry.getKey(), entry.getValue());
+                    changedKeys.add(entry.getKey());
+                }
+            }
+            if (changedKeys.isEmpty()) return null;
+
+            return yaml.saveToString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * ERGEBNIS eines Laufs (Labels der Dateien)
+     */
+    public static class Result {
+        // Label -> geänderte Schlüssel
+        private final Map<String, List<String>> changed = new LinkedHashMap<>();
+        private final List<String> unchanged = new ArrayList<>();
+        private final List<String> missing = new ArrayList<>();
+        private final Map<String, String> failed = new LinkedHashMap<>();
+
+        public Map<String, List<String>> getChanged() { return changed; }
+        public List<String> getUnchanged() { return unchanged; }
+        public List<String> getMissing() { return missing; }
+        public Map<String, String> getFailed() { return failed; }
+    }
+}
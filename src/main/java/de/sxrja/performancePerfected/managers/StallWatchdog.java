@@ -0,0 +1,244 @@
+package de.sxrja.performancePerfected.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Watchdog-Thread für Lag-Spitzen.
+ * Läuft ein Tick länger als die Schwelle, wird der Server-Thread bis zum Tick-Ende periodisch
+ * abgetastet. Die Stacks landen gefaltet ("frame;frame;frame count") in einer Datei pro Spitze
+ * unter spikes/ - direkt lesbar für flamegraph.pl, speedscope & Co.
+ */
+public class StallWatchdog {
+
+    // Obergrenze pro Spitze, damit ein hängender Server nicht endlos Speicher sammelt
+    private static final int MAX_SAMPLES = 2000;
+    private static final String UNATTRIBUTED = "server";
+
+    private final JavaPlugin plugin;
+    private final TickSampler tickSampler;
+    private final Thread serverThread;
+    private final File spikeFolder;
+
+    private long thresholdNanos = 100_000_000L;
+    private long sampleIntervalMillis = 10;
+    private long minSpikeGapNanos = 10_000_000_000L;
+    private int maxFiles = 20;
+
+    private Thread thread = null;
+    private volatile boolean running = false;
+
+    // Zustand der laufenden Spitze (nur Watchdog-Thread)
+    private long spikeTickStart = 0;
+    private int spikeTickNumber = 0;
+    private long spikeElapsedNanos = 0;
+    private long lastSpikeEnd = 0;
+    private int spikeSamples = 0;
+    private final Map<String, Integer> foldedStacks = new HashMap<>();
+    private final Map<String, Integer> pluginSamples = new HashMap<>();
+
+    // Paket-Präfix -> Plugin-Name (beim Start erhoben)
+    private Map<String, String> pluginPackages = new LinkedHashMap<>();
+
+    private volatile String lastSpikeSummary = null;
+    private volatile long lastSpikeMillis = 0;
+    private volatile int recordedSpikes = 0;
+
+    /**
+     * Muss auf dem Server-Thread erzeugt werden (onEnable)
+     */
+    public StallWatchdog(JavaPlugin plugin, TickSampler tickSampler) {
+        this.plugin = plugin;
+        this.tickSampler = tickSampler;
+        this.serverThread = Thread.currentThread();
+        this.spikeFolder = new File(plugin.getDataFolder(), "spikes");
+    }
+
+    public void start(long thresholdMillis, long sampleIntervalMillis, int minSpikeGapSeconds, int maxFiles) {
+        stop();
+
+        this.thresholdNanos = Math.max(1, thresholdMillis) * 1_000_000L;
+        this.sampleIntervalMillis = Math.max(1, sampleIntervalMillis);
+        this.minSpikeGapNanos = Math.max(0, minSpikeGapSeconds) * 1_000_000_000L;
+        this.maxFiles = Math.max(1, maxFiles);
+
+        // Längste Präfixe zuerst, damit verschachtelte Pakete dem richtigen Plugin zugeordnet werden
+        List<Plugin> plugins = new ArrayList<>(Arrays.asList(Bukkit.getPluginManager().getPlugins()));
+        plugins.sort((a, b) -> Integer.compare(packageOf(b).length(), packageOf(a).length()));
+        Map<String, String> packages = new LinkedHashMap<>();
+        for (Plugin other : plugins) {
+            if (!packageOf(other).isEmpty()) {
+                packages.put(packageOf(other) + ".", other.getName());
+            }
+        }
+        pluginPackages = packages;
+
+        running = true;
+        thread = new Thread(this::run, "PerformancePerfected-Watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                // Höchstens eine angefangene Spike-Datei abwarten, dann gehört der Zustand dem neuen Thread
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(sampleIntervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            long tickStart = tickSampler.getCurrentTickStartNanos();
+
+            // Tick beendet (oder neuer Tick): laufende Spitze abschließen
+            if (spikeTickStart != 0 && tickStart != spikeTickStart) {
+                finishSpike();
+            }
+            if (tickStart == 0) continue;
+
+            long elapsed = System.nanoTime() - tickStart;
+            if (spikeTickStart == 0) {
+                if (elapsed < thresholdNanos) continue;
+                if (lastSpikeEnd != 0 && tickStart - lastSpikeEnd < minSpikeGapNanos) continue;
+                spikeTickStart = tickStart;
+                spikeTickNumber = tickSampler.getCurrentTickNumber();
+            }
+
+            spikeElapsedNanos = elapsed;
+            if (spikeSamples < MAX_SAMPLES) {
+                sample();
+            }
+        }
+    }
+
+    /**
+     * EINE STICHPROBE: Stack des Server-Threads falten und dem verursachenden Plugin zuordnen
+     */
+    private void sample() {
+        StackTraceElement[] trace = serverThread.getStackTrace();
+        if (trace.length == 0) return;
+
+        StringBuilder folded = new StringBuilder();
+        for (int i = trace.length - 1; i >= 0; i--) {
+            if (folded.length() > 0) folded.append(';');
+            folded.append(trace[i].getClassName()).append('.').append(trace[i].getMethodName());
+        }
+        foldedStacks.merge(folded.toString(), 1, Integer::sum);
+        pluginSamples.merge(attribute(trace), 1, Integer::sum);
+        spikeSamples++;
+    }
+
+    // Oberstes (zuletzt aufgerufenes) Plugin im Stack
+    private String attribute(StackTraceElement[] trace) {
+        for (StackTraceElement frame : trace) {
+            String className = frame.getClassName();
+            for (Map.Entry<String, String> entry : pluginPackages.entrySet()) {
+                if (className.startsWith(entry.getKey())) return entry.getValue();
+            }
+        }
+        return UNATTRIBUTED;
+    }
+
+    private void finishSpike() {
+        if (spikeSamples > 0) {
+            writeSpike();
+        }
+        lastSpikeEnd = spikeTickStart + spikeElapsedNanos;
+        spikeTickStart = 0;
+        spikeElapsedNanos = 0;
+        spikeSamples = 0;
+        foldedStacks.clear();
+        pluginSamples.clear();
+    }
+
+    private void writeSpike() {
+        String culprit = UNATTRIBUTED;
+        int culpritSamples = 0;
+        for (Map.Entry<String, Integer> entry : pluginSamples.entrySet()) {
+            if (entry.getValue() > culpritSamples) {
+                culprit = entry.getKey();
+                culpritSamples = entry.getValue();
+            }
+        }
+
+        String fileName = "spike-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + "-tick" + spikeTickNumber + ".folded";
+        List<String> lines = new ArrayList<>(foldedStacks.size());
+        for (Map.Entry<String, Integer> entry : foldedStacks.entrySet()) {
+            lines.add(entry.getKey() + " " + entry.getValue());
+        }
+
+        String summary = String.format("Tick %d stalled for at least %.0fms - %d samples, %d%% in %s",
+                spikeTickNumber, spikeElapsedNanos / 1e6, spikeSamples,
+                culpritSamples * 100 / spikeSamples, culprit);
+        try {
+            Files.createDirectories(spikeFolder.toPath());
+            Files.write(new File(spikeFolder, fileName).toPath(), lines, StandardCharsets.UTF_8);
+            pruneOldSpikes();
+            summary += " (spikes/" + fileName + ")";
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write spike profile: " + e.getMessage());
+        }
+
+        lastSpikeSummary = summary;
+        lastSpikeMillis = System.currentTimeMillis();
+        recordedSpikes++;
+        plugin.getLogger().warning("⚠ " + summary);
+    }
+
+    // Nur die neuesten maxFiles Dateien behalten (Namen sind chronologisch sortierbar)
+    private void pruneOldSpikes() {
+        File[] files = spikeFolder.listFiles((dir, name) -> name.startsWith("spike-") && name.endsWith(".folded"));
+        if (files == null || files.length <= maxFiles) return;
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (int i = 0; i < files.length - maxFiles; i++) {
+            if (!files[i].delete()) {
+                plugin.getLogger().warning("Could not delete old spike profile " + files[i].getName());
+            }
+        }
+    }
+
+    private static String packageOf(Plugin other) {
+        Package pkg = other.getClass().getPackage();
+        return pkg != null ? pkg.getName() : "";
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getRecordedSpikes() {
+        return recordedSpikes;
+    }
+
+    /**
+     * Letzte Spitze, falls sie höchstens maxAgeMillis zurückliegt (sonst null)
+     */
+    public String getRecentSpikeSummary(long maxAgeMillis) {
+        String summary = lastSpikeSummary;
+        if (summary == null || System.currentTimeMillis() - lastSpikeMillis > maxAgeMillis) return null;
+        return summary;
+    }
+}
@@ -0,0 +1,289 @@
+package de.sxrja.performancePerfected.managers;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Misst jeden einzelnen Tick (ServerTickStart/EndEvent) statt nur den 1-Minuten-TPS-Schnitt.
+ * Die Tick-Dauern landen in einem Ringpuffer; pro Zeitfenster wird ein Histogramm fortlaufend
+ * gepflegt (neuer Tick rein, aus dem Fenster gefallener Tick raus), Perzentile kosten daher nur
+ * einen Durchlauf über die Buckets. Geschrieben wird nur vom Main-Thread, gelesen ohne Locks
+ * von beliebigen Threads.
+ */
+public class TickSampler implements Listener {
+
+    public enum Window {
+        FIVE_SECONDS("5s", 100), ONE_MINUTE("1m", 1200), FIVE_MINUTES("5m", 6000);
+
+        private final String label;
+        private final int ticks;
+
+        Window(String label, int ticks) {
+            this.label = label;
+            this.ticks = ticks;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getTicks() {
+            return ticks;
+        }
+
+        public static Window fromLabel(String label, Window fallback) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) return window;
+            }
+            return fallback;
+        }
+    }
+
+    // Größtes Fenster = Länge des Ringpuffers
+    private static final int CAPACITY = 6000;
+    // Buckets: 0.1ms bis 100ms, 1ms bis 1s, 10ms bis 10s, darüber ein Überlauf-Bucket
+    private static final long FINE_NANOS = 100_000;
+    private static final long MEDIUM_NANOS = 1_000_000;
+    private static final long COARSE_NANOS = 10_000_000;
+    private static final int FINE_BUCKETS = 1000;
+    private static final int MEDIUM_BUCKETS = 900;
+    private static final int COARSE_BUCKETS = 900;
+    private static final int BUCKETS = FINE_BUCKETS + MEDIUM_BUCKETS + COARSE_BUCKETS + 1;
+
+    private final AtomicLongArray durations = new AtomicLongArray(CAPACITY);
+    private final AtomicIntegerArray[] histograms = new AtomicIntegerArray[Window.values().length];
+    private final AtomicLongArray windowSums = new AtomicLongArray(Window.values().length);
+
+    // Anzahl bisher erfasster Ticks (volatile: veröffentlicht Ring und Histogramme an Leser)
+    private volatile long written = 0;
+    // Start des laufenden Ticks (0 = kein Tick aktiv)
+    private volatile long tickStartNanos = 0;
+    private volatile int currentTickNumber = 0;
+    private volatile long lastTickNanos = 0;
+
+    public TickSampler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new AtomicIntegerArray(BUCKETS);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onTickStart(ServerTickStartEvent event) {
+        currentTickNumber = event.getTickNumber();
+        tickStartNanos = System.nanoTime();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        tickStartNanos = 0;
+        // Paper misst den kompletten Tick inkl. Handler, die vor uns laufen
+        record((long) (event.getTickDuration() * 1_000_000));
+    }
+
+    /**
+     * EINEN TICK ERFASSEN (nur Main-Thread)
+     */
+    void record(long nanos) {
+        long n = written;
+        int slot = (int) (n % CAPACITY);
+        Window[] windows = Window.values();
+
+        // Erst aus dem Fenster gefallene Ticks austragen - beim 5m-Fenster ist das genau der Slot,
+        // der gleich überschrieben wird
+        for (int i = 0; i < windows.length; i++) {
+            if (n >= windows[i].ticks) {
+                long evicted = durations.get((int) ((n - windows[i].ticks) % CAPACITY));
+                histograms[i].decrementAndGet(bucketOf(evicted));
+                windowSums.addAndGet(i, -evicted);
+            }
+        }
+
+        durations.set(slot, nanos);
+        int bucket = bucketOf(nanos);
+        for (int i = 0; i < windows.length; i++) {
+            histograms[i].incrementAndGet(bucket);
+            windowSums.addAndGet(i, nanos);
+        }
+
+        lastTickNanos = nanos;
+        written = n + 1;
+    }
+
+    /**
+     * STATISTIK EINES FENSTERS (threadsicher, ohne Locks)
+     */
+    public Stats getStats(Window window) {
+        long n = written;
+        int count = (int) Math.min(n, window.ticks);
+        if (count == 0) {
+            return new Stats(window, 0, 0, 0, 0, 0, 0);
+        }
+
+        // Maximum exakt aus dem Ringpuffer (Histogramm ist oben abgeschnitten)
+        long max = 0;
+        for (long i = n - count; i < n; i++) {
+            max = Math.max(max, durations.get((int) (i % CAPACITY)));
+        }
+
+        AtomicIntegerArray histogram = histograms[window.ordinal()];
+        long rank50 = rankOf(0.50, count);
+        long rank95 = rankOf(0.95, count);
+        long rank99 = rankOf(0.99, count);
+        long p50 = -1, p95 = -1, p99 = -1;
+
+        long cumulative = 0;
+        for (int bucket = 0; bucket < BUCKETS && p99 < 0; bucket++) {
+            cumulative += histogram.get(bucket);
+            // Obere Bucket-Grenze, höchstens aber das echte Maximum
+            long upper = Math.min(max, upperBoundOf(bucket));
+            if (p50 < 0 && cumulative >= rank50) p50 = upper;
+            if (p95 < 0 && cumulative >= rank95) p95 = upper;
+            if (p99 < 0 && cumulative >= rank99) p99 = upper;
+        }
+        // Leser kann zwischen zwei Schreibvorgängen liegen - dann eben das Maximum
+        if (p50 < 0) p50 = max;
+        if (p95 < 0) p95 = max;
+        if (p99 < 0) p99 = max;
+
+        double avg = windowSums.get(window.ordinal()) / (double) count;
+        return new Stats(window, count, p50 / 1e6, p95 / 1e6, p99 / 1e6, max / 1e6, avg / 1e6);
+    }
+
+    /**
+     * MSPT NACH METRIK (z.B. "p95:5s", "max:1m", "avg:5m")
+     * Ohne Messwerte (direkt nach dem Start) gilt Paper's Durchschnitt.
+     */
+    public double getMspt(String metric) {
+        String[] parts = metric == null ? new String[0] : metric.trim().split(":");
+        String stat = parts.length > 0 ? parts[0] : "avg";
+        Window window = Window.fromLabel(parts.length > 1 ? parts[1] : "", Window.FIVE_SECONDS);
+
+        Stats stats = getStats(window);
+        if (stats.samples == 0) {
+            return Bukkit.getAverageTickTime();
+        }
+        return stats.get(stat);
+    }
+
+    // Metrik-Angaben aus der Config prüfen, ungültige durch den Standard ersetzen
+    public static String normalizeMetric(String metric, String fallback) {
+        if (metric == null) return fallback;
+        String[] parts = metric.trim().toLowerCase().split(":");
+        if (parts.length != 2 || Window.fromLabel(parts[1], null) == null) return fallback;
+        switch (parts[0]) {
+            case "p50":
+            case "p95":
+            case "p99":
+            case "max":
+            case "avg":
+                return parts[0] + ":" + parts[1];
+            default:
+                return fallback;
+        }
+    }
+
+    private static long rankOf(double percentile, int count) {
+        return Math.max(1, (long) Math.ceil(percentile * count));
+    }
+
+    private static int bucketOf(long nanos) {
+        long value = Math.max(0, nanos);
+        if (value < FINE_BUCKETS * FINE_NANOS) {
+            return (int) (value / FINE_NANOS);
+        }
+        value -= FINE_BUCKETS * FINE_NANOS;
+        if (value < MEDIUM_BUCKETS * MEDIUM_NANOS) {
+            return FINE_BUCKETS + (int) (value / MEDIUM_NANOS);
+        }
+        value -= MEDIUM_BUCKETS * MEDIUM_NANOS;
+        return (int) Math.min(BUCKETS - 1, FINE_BUCKETS + MEDIUM_BUCKETS + value / COARSE_NANOS);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < FINE_BUCKETS) {
+            return (bucket + 1) * FINE_NANOS;
+        }
+        long base = FINE_BUCKETS * FINE_NANOS;
+        if (bucket < FINE_BUCKETS + MEDIUM_BUCKETS) {
+            return base + (bucket - FINE_BUCKETS + 1) * MEDIUM_NANOS;
+        }
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        base += MEDIUM_BUCKETS * MEDIUM_NANOS;
+        return base + (bucket - FINE_BUCKETS - MEDIUM_BUCKETS + 1) * COARSE_NANOS;
+    }
+
+    /**
+     * Wie lange läuft der aktuelle Tick schon? (0 = zwischen zwei Ticks)
+     */
+    public long getCurrentTickNanos() {
+        long start = tickStartNanos;
+        return start == 0 ? 0 : System.nanoTime() - start;
+    }
+
+    // Identifiziert den laufenden Tick (0 = zwischen zwei Ticks)
+    public long getCurrentTickStartNanos() {
+        return tickStartNanos;
+    }
+
+    public int getCurrentTickNumber() {
+        return currentTickNumber;
+    }
+
+    public double getLastTickMillis() {
+        return lastTickNanos / 1e6;
+    }
+
+    public long getSampleCount() {
+        return written;
+    }
+
+    /**
+     * Momentaufnahme eines Fensters (alle Werte in ms)
+     */
+    public static class Stats {
+        private final Window window;
+        private final int samples;
+        private final double p50;
+        private final double p95;
+        private final double p99;
+        private final double max;
+        private final double avg;
+
+        Stats(Window window, int samples, double p50, double p95, double p99, double max, double avg) {
+            this.window = window;
+            this.samples = samples;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+            this.avg = avg;
+        }
+
+        public double get(String stat) {
+            switch (stat.toLowerCase()) {
+                case "p50": return p50;
+                case "p95": return p95;
+                case "p99": return p99;
+                case "max": return max;
+                default: return avg;
+            }
+        }
+
+        public Window getWindow() { return window; }
+        public int getSamples() { return samples; }
+        public double getP50() { return p50; }
+        public double getP95() { return p95; }
+        public double getP99() { return p99; }
+        public double getMax() { return max; }
+        public double getAvg() { return avg; }
+    }
+}
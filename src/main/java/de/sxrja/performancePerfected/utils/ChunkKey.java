@@ -0,0 +1,34 @@
+package de.sxrja.performancePerfected.utils;
+
+/**
+ * Packt Chunk-Koordinaten in einen long (gleiches Layout wie Paper's Chunk#getChunkKey).
+ */
+public final class ChunkKey {
+
+    private ChunkKey() {
+    }
+
+    public static long pack(int x, int z) {
+        return ((long) x & 0xFFFFFFFFL) | (((long) z & 0xFFFFFFFFL) << 32);
+    }
+
+    public static int x(long key) {
+        return (int) key;
+    }
+
+    public static int z(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Durchmischt den Key für Open-Addressing-Tabellen (Murmur3-Finalizer)
+     */
+    public static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}